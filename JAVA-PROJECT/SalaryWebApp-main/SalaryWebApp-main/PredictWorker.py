@@ -0,0 +1,67 @@
+#!/usr/bin/env python
+# coding: utf-8
+
+# # Random Forest Regression worker
+#
+# Same model as PredictSalary.py, but the dataset is loaded and the model is fitted once.
+# Requests are then read from stdin, one per line:
+#   age<TAB>gender<TAB>education_level<TAB>job_title<TAB>years_of_experience
+# and each answer is written as one line on stdout. "ping" is answered with "pong".
+
+import sys
+import warnings
+
+import numpy as np
+import pandas as pd
+from sklearn.ensemble import RandomForestRegressor
+from sklearn.preprocessing import LabelEncoder
+from sklearn.preprocessing import StandardScaler
+from sklearn.model_selection import train_test_split
+
+warnings.filterwarnings("ignore")
+
+# arg 'Salary_Data.csv'
+dataset_file = sys.argv[1]
+
+dataset = pd.read_csv(dataset_file)
+dataset = dataset.dropna()
+
+label_encoder = LabelEncoder()
+dataset['Gender'] = label_encoder.fit_transform(dataset['Gender'])
+dataset['Education Level'] = label_encoder.fit_transform(dataset['Education Level'])
+dataset['Job Title'] = label_encoder.fit_transform(dataset['Job Title'])
+
+X = np.array(dataset.iloc[:, :-1])
+y = np.array(dataset.iloc[:, -1])
+X_train, X_test, y_train, y_test = train_test_split(X, y, test_size=0.2, random_state=0)
+
+sc = StandardScaler()
+X_train = sc.fit_transform(X_train)
+
+rf = RandomForestRegressor(n_estimators=10, random_state=0)
+rf.fit(X_train, y_train)
+
+
+def answer(line):
+    if line == "ping":
+        return "pong"
+    fields = line.split("\t")
+    if len(fields) != 5:
+        return "error: expected 5 fields, got %d" % len(fields)
+    try:
+        age = int(fields[0])
+        gender = int(fields[1])
+        education_level = int(fields[2])
+        job_title = int(fields[3])
+        years_of_experience = float(fields[4])
+    except ValueError as e:
+        return "error: %s" % e
+    return str(rf.predict(sc.transform([[age, gender, education_level, job_title, years_of_experience]])).reshape(-1, 1)[0][0])
+
+
+print("ready")
+sys.stdout.flush()
+
+for request in sys.stdin:
+    print(answer(request.rstrip("\n")))
+    sys.stdout.flush()
@@ -0,0 +1,80 @@
+#!/usr/bin/env python
+# coding: utf-8
+
+# Compares two JMH JSON result files (mvn -Pbenchmark test-compile exec:exec -Djmh.result=...),
+# for example the results of two commits:
+#   python3 compare_benchmarks.py target/jmh-base.json target/jmh-head.json --threshold 5
+# Prints every score with its change and exits with 1 when a score got worse by more than the
+# threshold (in percent) and by more than the two error margins, so it can gate a build.
+
+import argparse
+import json
+import sys
+
+
+def key(result):
+    params = ",".join("%s=%s" % item for item in sorted(result.get("params", {}).items()))
+    return result["benchmark"].replace("benchmark.", "", 1) + ("(" + params + ")" if params else "")
+
+
+def scores(path):
+    with open(path) as f:
+        results = json.load(f)
+    found = {}
+    for result in results:
+        # throughput: higher is better; time modes: lower is better
+        higher = result["mode"] == "thrpt"
+        primary = result["primaryMetric"]
+        found[key(result)] = (primary["score"], primary["scoreError"], primary["scoreUnit"], higher)
+        for name, metric in result.get("secondaryMetrics", {}).items():
+            if name.startswith("p0.") or name == "p1.00":
+                continue
+            # allocation rates are better lower whatever the mode; aux counters follow the mode
+            better_higher = higher and "gc." not in name
+            found[key(result) + ":" + name] = (metric["score"], metric["scoreError"], metric["scoreUnit"], better_higher)
+    return found
+
+
+def error(value):
+    # JMH writes "NaN" when there were too few iterations to estimate an error
+    value = float(value)
+    return 0.0 if value != value else value
+
+
+def main():
+    parser = argparse.ArgumentParser()
+    parser.add_argument("base")
+    parser.add_argument("head")
+    parser.add_argument("--threshold", type=float, default=5.0)
+    args = parser.parse_args()
+
+    base = scores(args.base)
+    head = scores(args.head)
+    regressions = 0
+    width = max([len(name) for name in head] + [9])
+    print("%-*s %14s %14s %9s  %s" % (width, "Benchmark", "base", "head", "change", "unit"))
+    for name in sorted(head):
+        score, err, unit, higher = head[name]
+        if name not in base:
+            print("%-*s %14s %14.3f %9s  %s" % (width, name, "-", score, "new", unit))
+            continue
+        base_score, base_err, _, _ = base[name]
+        change = (score - base_score) / base_score * 100 if base_score else 0.0
+        worse = -change if higher else change
+        beyond_error = abs(score - base_score) > error(err) + error(base_err)
+        flag = ""
+        if worse > args.threshold and beyond_error:
+            flag = "  REGRESSION"
+            regressions += 1
+        elif -worse > args.threshold and beyond_error:
+            flag = "  improved"
+        print("%-*s %14.3f %14.3f %+8.1f%%  %s%s" % (width, name, base_score, score, change, unit, flag))
+    for name in sorted(set(base) - set(head)):
+        print("%-*s %14.3f %14s %9s" % (width, name, base[name][0], "-", "removed"))
+    if regressions:
+        print("%d regression(s) beyond %.1f%%" % (regressions, args.threshold))
+        sys.exit(1)
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,90 @@
+package benchmark;
+
+import menu.PredictBatch;
+import org.openjdk.jmh.annotations.*;
+import predict.BatchScorer;
+import predict.SalaryModel;
+import predict.SalaryModelTrainer;
+import utils.CsvReader;
+import utils.JsonArrayReader;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// One /predictBatch request end to end minus the network: parse the body, score chunk by chunk,
+// format the results. profiles/s = profiles / (ms/op) * 1000.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchPredictionBenchmark {
+    @Param({"10000", "100000"})
+    public int profiles;
+
+    private SalaryModel model;
+    private Map<String, Integer> jobTitles;
+    private String csv;
+    private String json;
+
+    @Setup
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.setUp(10000);
+        model = SalaryModelTrainer.trainFromDatabase();
+        jobTitles = new HashMap<>();
+        for (int i = 1; i <= BenchmarkDatabase.JOBS; i++) {
+            jobTitles.put("Job Title " + i, i);
+        }
+        StringBuilder csvBody = new StringBuilder("Age,Gender,Education Level,Job Title,Years of Experience\n");
+        StringBuilder jsonBody = new StringBuilder("[");
+        for (int i = 0; i < profiles; i++) {
+            int age = 22 + i % 40;
+            String gender = BenchmarkDatabase.GENDERS[i % 2];
+            String education = BenchmarkDatabase.EDUCATION_LEVELS[i % 3];
+            String job = "Job Title " + (1 + i % BenchmarkDatabase.JOBS);
+            int experience = i % 25;
+            csvBody.append(age).append(',').append(gender).append(',').append(education).append(',')
+                    .append(job).append(',').append(experience).append('\n');
+            jsonBody.append(i == 0 ? "" : ",").append("{\"age\":").append(age).append(",\"gender\":").append(i % 2)
+                    .append(",\"education_level\":").append(i % 3).append(",\"job_title\":\"").append(job)
+                    .append("\",\"years_of_experience\":").append(experience).append('}');
+        }
+        csv = csvBody.toString();
+        json = jsonBody.append(']').toString();
+    }
+
+    @Benchmark
+    public long csv() throws IOException {
+        return PredictBatch.scoreCsv(new CsvReader(new StringReader(csv)), new BatchScorer(model, jobTitles), new NullWriter());
+    }
+
+    @Benchmark
+    public long json() throws IOException {
+        return PredictBatch.scoreJson(new JsonArrayReader(new StringReader(json)), new BatchScorer(model, jobTitles), new NullWriter());
+    }
+
+    static final class NullWriter extends Writer {
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+        }
+
+        @Override
+        public Writer append(CharSequence csq) {
+            return this;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
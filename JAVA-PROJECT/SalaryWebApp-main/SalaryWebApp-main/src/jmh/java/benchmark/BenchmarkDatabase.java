@@ -0,0 +1,73 @@
+package benchmark;
+
+import schema.SchemaMigrator;
+import utils.ConnectionPool;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// In-memory H2 (MySQL mode) stand-in for the job_salary database, shared by all benchmarks.
+public class BenchmarkDatabase {
+    static final String[] GENDERS = {"Male", "Female"};
+    static final String[] EDUCATION_LEVELS = {"Bachelor's", "Master's", "PhD"};
+    static final int JOBS = 50;
+
+    private static boolean created = false;
+
+    public static synchronized void setUp(int users) throws SQLException {
+        if (created) {
+            return;
+        }
+        System.setProperty("salary.db.url", "jdbc:h2:mem:job_salary;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        System.setProperty("salary.db.user", "sa");
+        System.setProperty("salary.db.password", "");
+        try (Connection connection = ConnectionPool.getConnection();
+             Statement statement = connection.createStatement()) {
+            SchemaMigrator.migrate(connection);
+            statement.execute("insert into members (username, password, role) values ('admin', '21232f297a57a5a743894a0e4a801fc3', 'admin')");
+            seed(connection, users);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        created = true;
+    }
+
+    private static void seed(Connection connection, int users) throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement job = connection.prepareStatement("insert into jobs (job_title) values (?)");
+             PreparedStatement user = connection.prepareStatement(
+                     "insert into users (age, gender, education_level, years_of_experience, salary) values (?, ?, ?, ?, ?)");
+             PreparedStatement relation = connection.prepareStatement("insert into salary_datas (user_id, job_id) values (?, ?)")) {
+            for (int i = 1; i <= JOBS; i++) {
+                job.setString(1, "Job Title " + i);
+                job.addBatch();
+            }
+            job.executeBatch();
+            for (int i = 1; i <= users; i++) {
+                int experience = i % 25;
+                int jobIndex = (i / 25) % JOBS;
+                user.setInt(1, 22 + experience + i % 7);
+                user.setString(2, GENDERS[i % GENDERS.length]);
+                user.setString(3, EDUCATION_LEVELS[i % EDUCATION_LEVELS.length]);
+                user.setFloat(4, experience);
+                user.setInt(5, 40000 + experience * 5000 + (i % EDUCATION_LEVELS.length) * 10000 + jobIndex * 300);
+                user.addBatch();
+                relation.setInt(1, i);
+                relation.setInt(2, 1 + jobIndex);
+                relation.addBatch();
+                if (i % 1000 == 0) {
+                    user.executeBatch();
+                    relation.executeBatch();
+                }
+            }
+            user.executeBatch();
+            relation.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package benchmark;
+
+import login.Authenticator;
+import login.MD5;
+import login.Pbkdf2Hasher;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+// Password hashes per second at several PBKDF2 costs, to size salary.password.pbkdf2.iterations
+// against the login peak (one verify per uncached login, per core), next to the legacy MD5 and
+// a repeated login answered from Authenticator's cache.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class PasswordBenchmark {
+    @Param({"10000", "100000", "210000", "600000"})
+    public int iterations;
+
+    private Pbkdf2Hasher hasher;
+    private String stored;
+
+    @Setup
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.setUp(100);
+        hasher = new Pbkdf2Hasher(iterations);
+        stored = hasher.hash("correct horse battery staple");
+        if (Authenticator.authenticate("admin", "admin") == null) {
+            throw new IllegalStateException("admin login failed");
+        }
+    }
+
+    @Benchmark
+    public boolean pbkdf2Verify() {
+        return hasher.matches("correct horse battery staple", stored);
+    }
+
+    @Benchmark
+    public String md5() {
+        return MD5.getMd5("correct horse battery staple");
+    }
+
+    @Benchmark
+    public String cachedLogin() throws SQLException {
+        return Authenticator.authenticate("admin", "admin");
+    }
+}
@@ -0,0 +1,57 @@
+package benchmark;
+
+import metrics.QueryLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+// Cost on the request thread of logging a statement, with several request threads at once.
+// "println" is the old DBUtil path: every statement printed through a synchronized PrintStream.
+// "ring" logs every statement too (sampling and the rate limit are switched off for the fork)
+// but only fills a QueryLog ring slot; "sampled" is QueryLog with the default 1 in 100.
+// Both write to /dev/null so the terminal does not set the pace.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dsalary.querylog.file=/dev/null", "-Dsalary.querylog.flushMs=1"})
+@Threads(4)
+public class QueryLogBenchmark {
+    private static final String QUERY = "update users set age = ?, gender = ?, education_level = ?, years_of_experience = ?, salary = ? where id = ?";
+
+    private PrintStream stdout;
+
+    @Setup
+    public void setUp() throws FileNotFoundException {
+        stdout = new PrintStream(new FileOutputStream("/dev/null"), true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        QueryLog.shutdown();
+        System.out.println("written=" + QueryLog.getWritten() + ", dropped=" + QueryLog.getDropped()
+                + ", rateLimited=" + QueryLog.getRateLimited());
+        stdout.close();
+    }
+
+    @Benchmark
+    public void println() {
+        stdout.println(QUERY);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Dsalary.querylog.file=/dev/null", "-Dsalary.querylog.flushMs=1",
+            "-Dsalary.querylog.sampleEvery=1", "-Dsalary.querylog.maxPerSecond=0"})
+    public void ring() {
+        QueryLog.sample(QUERY, 1500000, 1);
+    }
+
+    @Benchmark
+    public void sampled() {
+        QueryLog.sample(QUERY, 1500000, 1);
+    }
+}
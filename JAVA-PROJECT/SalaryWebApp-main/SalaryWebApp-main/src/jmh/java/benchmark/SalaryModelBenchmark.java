@@ -0,0 +1,55 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import predict.SalaryModel;
+import predict.SalaryModelTrainer;
+import utils.SalarySnapshot;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+// Scoring throughput of the in-JVM salary model trained from the H2 salary_view.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SalaryModelBenchmark {
+    private SalaryModel model;
+    private SalarySnapshot snapshot;
+    private int i;
+
+    @Setup
+    public void setUp() throws SQLException, IOException {
+        BenchmarkDatabase.setUp(10000);
+        model = SalaryModelTrainer.trainFromDatabase();
+        snapshot = SalarySnapshot.refresh();
+    }
+
+    @Benchmark
+    public double predict() {
+        int n = i++;
+        return model.predict(22 + (n & 31), n & 1, n % 3, 1 + n % BenchmarkDatabase.JOBS, n & 15);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public SalaryModel train() throws SQLException {
+        return SalaryModelTrainer.trainFromDatabase();
+    }
+
+    // The same fit from the memory-mapped salary_view columns.
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public SalaryModel trainFromSnapshot() {
+        return SalaryModelTrainer.trainFromSnapshot(snapshot);
+    }
+}
@@ -0,0 +1,133 @@
+package benchmark;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Just enough of a servlet container to drive the real servlets from a benchmark: a request made
+// of attributes, parameters and headers, and a response whose body is counted and thrown away.
+// Anything else the servlets call answers null, 0 or false.
+class ServletHarness {
+    static class Request implements InvocationHandler {
+        final String method;
+        final Map<String, Object> attributes = new HashMap<>();
+        final Map<String, String> parameters = new HashMap<>();
+        final Map<String, String> headers = new HashMap<>();
+
+        Request(String method) {
+            this.method = method;
+        }
+
+        HttpServletRequest proxy() {
+            return (HttpServletRequest) Proxy.newProxyInstance(ServletHarness.class.getClassLoader(),
+                    new Class<?>[]{HttpServletRequest.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method m, Object[] args) {
+            switch (m.getName()) {
+                case "getMethod": return method;
+                case "getAttribute": return attributes.get((String) args[0]);
+                case "setAttribute": attributes.put((String) args[0], args[1]); return null;
+                case "getParameter": return parameters.get((String) args[0]);
+                case "getHeader": return headers.get((String) args[0]);
+                case "getHeaders": return Collections.enumeration(headers.containsKey((String) args[0])
+                        ? Collections.singletonList(headers.get((String) args[0])) : Collections.<String>emptyList());
+                case "getContextPath": return "";
+                case "getServletPath": return "";
+                case "getProtocol": return "HTTP/1.1";
+                case "getRemoteAddr": return "127.0.0.1";
+                case "getDateHeader": return -1L;
+                default: return defaultValue(m.getReturnType());
+            }
+        }
+    }
+
+    static class Response implements InvocationHandler {
+        final TemplateBenchmark.CountingOutputStream body = new TemplateBenchmark.CountingOutputStream();
+        final List<Cookie> cookies = new ArrayList<>();
+        int status = HttpServletResponse.SC_OK;
+        String redirect;
+        private final ServletOutputStream output = new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                body.write(b, off, len);
+            }
+        };
+        private PrintWriter writer;
+
+        HttpServletResponse proxy() {
+            return (HttpServletResponse) Proxy.newProxyInstance(ServletHarness.class.getClassLoader(),
+                    new Class<?>[]{HttpServletResponse.class}, this);
+        }
+
+        long bytes() {
+            if (writer != null) {
+                writer.flush();
+            }
+            return body.count;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method m, Object[] args) throws IOException {
+            switch (m.getName()) {
+                case "getOutputStream": return output;
+                case "getWriter":
+                    if (writer == null) {
+                        writer = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+                    }
+                    return writer;
+                case "setStatus": status = (Integer) args[0]; return null;
+                case "sendError": status = (Integer) args[0]; return null;
+                case "getStatus": return status;
+                case "sendRedirect": status = HttpServletResponse.SC_FOUND; redirect = (String) args[0]; return null;
+                case "addCookie": cookies.add((Cookie) args[0]); return null;
+                case "getCharacterEncoding": return "UTF-8";
+                case "flushBuffer": output.flush(); return null;
+                default: return defaultValue(m.getReturnType());
+            }
+        }
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
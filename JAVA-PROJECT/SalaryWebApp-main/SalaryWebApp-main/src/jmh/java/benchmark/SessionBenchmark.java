@@ -0,0 +1,47 @@
+package benchmark;
+
+import login.SessionStore;
+import login.UserSession;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Session lookups per second with many live sessions and several request threads at once,
+// which is what AuthFilter does on every request.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class SessionBenchmark {
+    @Param({"1000", "100000"})
+    public int sessions;
+
+    private String[] tokens;
+
+    @Setup
+    public void setUp() {
+        tokens = new String[sessions];
+        for (int i = 0; i < sessions; i++) {
+            tokens[i] = SessionStore.create("user" + i, i % 10 == 0).getToken();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public UserSession lookup(Cursor cursor) {
+        cursor.next = (cursor.next + 7919) % sessions;
+        return SessionStore.get(tokens[cursor.next]);
+    }
+
+    @Benchmark
+    public UserSession unknownToken() {
+        return SessionStore.get("0000000000000000000000000000000000000000000000000000000000000000");
+    }
+}
@@ -0,0 +1,80 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import utils.ConnectionPool;
+import utils.DBUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+// Statements per second for the old concatenated-SQL path against the parameterized DBUtil path.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatementBenchmark {
+    private Connection connection;
+    private Statement statement;
+    private int id;
+
+    @Setup
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.setUp(10000);
+        connection = ConnectionPool.getConnection();
+        statement = connection.createStatement();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        statement.close();
+        connection.close();
+    }
+
+    private int nextId() {
+        id = id % 10000 + 1;
+        return id;
+    }
+
+    @Benchmark
+    public boolean loginConcatenated() throws SQLException {
+        try (ResultSet rs = statement.executeQuery("select * from members where username = '" + "admin"
+                + "' and password = '" + "21232f297a57a5a743894a0e4a801fc3" + "'")) {
+            return rs.next();
+        }
+    }
+
+    // Same connection as the concatenated case, isolating the statement cost from the pool borrow.
+    @Benchmark
+    public boolean loginPreparedSameConnection() throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("select role from members where username = ? and password = ?")) {
+            ps.setString(1, "admin");
+            ps.setString(2, "21232f297a57a5a743894a0e4a801fc3");
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean loginPrepared() throws SQLException {
+        return DBUtil.selectRole("admin", "21232f297a57a5a743894a0e4a801fc3") != null;
+    }
+
+    @Benchmark
+    public int updateConcatenated() throws SQLException {
+        int userId = nextId();
+        return statement.executeUpdate("update users set age = '" + 30 + "', gender = '" + "Male" + "', education_level = '"
+                + "PhD" + "', years_of_experience = '" + 5.0f + "', salary = '" + 90000 + "' where id = " + userId);
+    }
+
+    @Benchmark
+    public boolean updatePrepared() {
+        return DBUtil.update("users", nextId(), 30, "Male", "PhD", 5.0f, 90000);
+    }
+}
@@ -0,0 +1,162 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import template.HtmlOutput;
+import template.Pages;
+import template.Template;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Renders the salary listing page for in-memory rows, once the old way (chrome strings and
+// concatenated rows through a PrintWriter) and once through the precompiled templates. Run with
+// -prof gc to compare allocations per page; the returned value is the page size in bytes.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateBenchmark {
+    private static final Template COLUMNS = Template.compile("                    <tr>\n" +
+            "                        <th>ID</th>\n" +
+            "                        <th>Age</th>\n" +
+            "                        <th>Gender</th>\n" +
+            "                        <th>Education Level</th>\n" +
+            "                        <th>Years Of Experience</th>\n" +
+            "                        <th>Job Title</th>\n" +
+            "                        <th>Salary</th>\n" +
+            "                    </tr>\n");
+    private static final Template ROW_START = Template.compile("                <tr>\n                  <td>");
+    private static final Template CELL = Template.compile("</td>\n                  <td>");
+    private static final Template ROW_END = Template.compile("</td>\n                </tr>\n");
+    private static final Template SCRIPT = Template.compile("    <script>\n" +
+            "            $(document).ready(function () {\n" +
+            "            $('#example').DataTable();\n" +
+            "            });\n" +
+            "        </script>\n");
+
+    @Param({"100", "1000"})
+    public int rows;
+
+    private int[] ids;
+    private int[] ages;
+    private String[] genders;
+    private String[] educationLevels;
+    private float[] experience;
+    private String[] jobTitles;
+    private int[] salaries;
+
+    // The static chrome as the servlets used to hold it: Java strings encoded again on every request.
+    private String tableHead;
+    private String tableFoot;
+
+    private CountingOutputStream sink;
+
+    @Setup
+    public void setUp() throws IOException {
+        ids = new int[rows];
+        ages = new int[rows];
+        genders = new String[rows];
+        educationLevels = new String[rows];
+        experience = new float[rows];
+        jobTitles = new String[rows];
+        salaries = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            ids[i] = i + 1;
+            ages[i] = 22 + i % 30;
+            genders[i] = BenchmarkDatabase.GENDERS[i % BenchmarkDatabase.GENDERS.length];
+            educationLevels[i] = BenchmarkDatabase.EDUCATION_LEVELS[i % BenchmarkDatabase.EDUCATION_LEVELS.length];
+            experience[i] = i % 25;
+            jobTitles[i] = "Job Title " + (i % BenchmarkDatabase.JOBS + 1);
+            salaries[i] = 40000 + i * 37 % 90000;
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        HtmlOutput out = new HtmlOutput(buffer);
+        Pages.begin(out, true);
+        Pages.tableStart(out, COLUMNS);
+        out.flush();
+        tableHead = buffer.toString("UTF-8");
+        buffer.reset();
+        Pages.tableEnd(out, COLUMNS);
+        Pages.endWithDataTable(out, SCRIPT);
+        out.flush();
+        tableFoot = buffer.toString("UTF-8");
+        sink = new CountingOutputStream();
+    }
+
+    @Benchmark
+    public long printWriter() {
+        sink.count = 0;
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(sink, StandardCharsets.UTF_8));
+        writer.println(tableHead);
+        for (int i = 0; i < rows; i++) {
+            Integer id = ids[i];
+            Integer age = ages[i];
+            Float years = experience[i];
+            Integer salary = salaries[i];
+            writer.println("\n" +
+                    "                <tr>\n" +
+                    "                  <td>" + id + "</td>\n" +
+                    "                  <td>" + age + "</td>\n" +
+                    "                  <td>" + genders[i] + "</td>\n" +
+                    "                  <td>" + educationLevels[i] + "</td>\n" +
+                    "                  <td>" + years + "</td>\n" +
+                    "                  <td>" + jobTitles[i] + "</td>\n" +
+                    "                  <td>" + salary + "</td>\n" +
+                    "                </tr>\n");
+        }
+        writer.println(tableFoot);
+        writer.flush();
+        return sink.count;
+    }
+
+    @Benchmark
+    public long template() throws IOException {
+        sink.count = 0;
+        HtmlOutput out = new HtmlOutput(sink);
+        Pages.begin(out, true);
+        Pages.tableStart(out, COLUMNS);
+        for (int i = 0; i < rows; i++) {
+            ROW_START.write(out);
+            out.number(ids[i]);
+            CELL.write(out);
+            out.number(ages[i]);
+            CELL.write(out);
+            out.text(genders[i]);
+            CELL.write(out);
+            out.text(educationLevels[i]);
+            CELL.write(out);
+            out.raw(Float.toString(experience[i]));
+            CELL.write(out);
+            out.text(jobTitles[i]);
+            CELL.write(out);
+            out.number(salaries[i]);
+            ROW_END.write(out);
+        }
+        Pages.tableEnd(out, COLUMNS);
+        Pages.endWithDataTable(out, SCRIPT);
+        return sink.count;
+    }
+
+    // Stands in for the servlet output stream without keeping the bytes.
+    static final class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
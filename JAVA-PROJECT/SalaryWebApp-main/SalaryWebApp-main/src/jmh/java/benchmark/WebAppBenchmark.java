@@ -0,0 +1,178 @@
+package benchmark;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import login.AuthFilter;
+import login.LoginPage;
+import login.SessionStore;
+import login.UserSession;
+import menu.CSVFile;
+import menu.Main;
+import org.openjdk.jmh.annotations.*;
+import predict.PredictionExecutor;
+import predict.Predictors;
+import predict.SalaryPredictor;
+import utils.DBUtil;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+// The request paths a regression would hurt most, driven through the real servlets against the
+// seeded H2 stand-in: login lookup, the full /main listing, /exportCSV and a prediction. The data
+// set, heap and GC are fixed so runs from different commits can be compared with
+// compare_benchmarks.py; see the benchmark profile in pom.xml for the result file.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g", "-XX:+UseParallelGC", "-Dsalary.querylog.sampleEvery=0"})
+public class WebAppBenchmark {
+    @Param({"10000"})
+    public int rows;
+
+    // "python" needs PredictWorker.py with scikit-learn: -p backend=python -jvmArgsAppend -Dsalary.predict.script=...
+    @Param({"jvm"})
+    public String backend;
+
+    private PrintStream stdout;
+    private UserSession admin;
+    private Main main;
+    private CSVFile csvFile;
+    private LoginPage loginPage;
+    private SalaryPredictor predictor;
+
+    @Setup
+    public void setUp() throws SQLException, IOException, ServletException {
+        System.setProperty("salary.predict.backend", backend);
+        BenchmarkDatabase.setUp(rows);
+        // the servlets print a line per export and per login; keep the fork's stdout readable
+        stdout = System.out;
+        System.setOut(new PrintStream(new TemplateBenchmark.CountingOutputStream()));
+        admin = SessionStore.create("admin", true);
+        main = new Main();
+        csvFile = new CSVFile();
+        loginPage = new LoginPage();
+        predictor = Predictors.get(backend);
+        predictor.predict(30, 0, 1, 1, 5);
+        if (login() != 302) {
+            throw new IllegalStateException("admin login failed");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(stdout);
+        PredictionExecutor.shutdown();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int next() {
+            return next++;
+        }
+    }
+
+    // Rows and bytes per second for the export.
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Exported {
+        public long rows;
+        public long bytes;
+    }
+
+    @Benchmark
+    public String[] loginLookup() throws SQLException {
+        return DBUtil.selectCredentials("admin");
+    }
+
+    // POST /loginPage with a correct password: lookup (or Authenticator cache), new session, redirect.
+    @Benchmark
+    public int loginPost() throws IOException, ServletException {
+        return login();
+    }
+
+    private int login() throws IOException, ServletException {
+        ServletHarness.Request request = new ServletHarness.Request("POST");
+        request.parameters.put("username", "admin");
+        request.parameters.put("password", "admin");
+        ServletHarness.Response response = new ServletHarness.Response();
+        loginPage.service(request.proxy(), response.proxy());
+        for (Cookie cookie : response.cookies) {
+            if (AuthFilter.COOKIE.equals(cookie.getName())) {
+                SessionStore.remove(cookie.getValue());
+            }
+        }
+        return response.status;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long listingRender() throws IOException, ServletException {
+        ServletHarness.Request request = new ServletHarness.Request("GET");
+        request.attributes.put("login.session", admin);
+        ServletHarness.Response response = new ServletHarness.Response();
+        main.service(request.proxy(), response.proxy());
+        return response.bytes();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public long csvExport(Exported exported) throws IOException, ServletException {
+        return export(exported, false);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public long csvExportGzip(Exported exported) throws IOException, ServletException {
+        return export(exported, true);
+    }
+
+    private long export(Exported exported, boolean gzip) throws IOException, ServletException {
+        ServletHarness.Request request = new ServletHarness.Request("POST");
+        request.attributes.put("login.session", admin);
+        if (gzip) {
+            request.headers.put("Accept-Encoding", "gzip");
+        }
+        ServletHarness.Response response = new ServletHarness.Response();
+        csvFile.service(request.proxy(), response.proxy());
+        long bytes = response.bytes();
+        exported.rows += rows;
+        exported.bytes += bytes;
+        return bytes;
+    }
+
+    // One uncached prediction on the calling thread, as the backend sees it.
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public double predict(Cursor cursor) throws IOException {
+        int n = cursor.next();
+        return predictor.predict(22 + (n & 31), n & 1, n % 3, 1 + n % BenchmarkDatabase.JOBS, n & 15);
+    }
+
+    // The same prediction handed to PredictionExecutor and awaited, as /predictData runs it.
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public Double predictAsync(Cursor cursor) throws InterruptedException, ExecutionException {
+        final int n = cursor.next();
+        FutureTask<Double> task = new FutureTask<>(new Callable<Double>() {
+            @Override
+            public Double call() throws IOException {
+                return predictor.predict(22 + (n & 31), n & 1, n % 3, 1 + n % BenchmarkDatabase.JOBS, n & 15);
+            }
+        });
+        Future<?> submitted = PredictionExecutor.submit(task);
+        submitted.get();
+        return task.get();
+    }
+}
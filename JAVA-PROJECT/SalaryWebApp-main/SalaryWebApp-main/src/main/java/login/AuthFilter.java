@@ -0,0 +1,67 @@
+package login;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+// Resolves the session cookie once per request and leaves the UserSession (or nothing) in a
+// request attribute, so the servlets' login and admin checks are plain attribute reads.
+@WebFilter(urlPatterns = {"/*"}, asyncSupported = true)
+public class AuthFilter implements Filter {
+    public static final String COOKIE = "SALARY_SESSION";
+    static final String ATTRIBUTE = "login.session";
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+        SessionStore.startSweeper();
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        HttpServletRequest req = (HttpServletRequest) request;
+        UserSession session = SessionStore.get(token(req));
+        if (session != null) {
+            req.setAttribute(ATTRIBUTE, session);
+        }
+        chain.doFilter(request, response);
+    }
+
+    @Override
+    public void destroy() {
+        SessionStore.stopSweeper();
+    }
+
+    static String token(HttpServletRequest req) {
+        Cookie[] cookies = req.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+
+    static void setCookie(HttpServletRequest req, HttpServletResponse resp, String token, boolean expire) {
+        Cookie cookie = new Cookie(COOKIE, expire ? "" : token);
+        String path = req.getContextPath();
+        cookie.setPath(path.isEmpty() ? "/" : path);
+        cookie.setHttpOnly(true);
+        cookie.setSecure(req.isSecure());
+        cookie.setAttribute("SameSite", "Lax");
+        // session cookie while logged in; max-age 0 tells the browser to drop it
+        cookie.setMaxAge(expire ? 0 : -1);
+        resp.addCookie(cookie);
+    }
+}
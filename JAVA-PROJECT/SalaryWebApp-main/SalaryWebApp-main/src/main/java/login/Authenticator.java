@@ -0,0 +1,150 @@
+package login;
+
+import utils.DBUtil;
+import utils.Settings;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Checks a username and password against members and returns the role. Old hashes are replaced
+// with the current hasher's on a successful login. Successful logins are remembered for a short
+// while as an HMAC of the credentials under a per-process key, so a user logging in again skips
+// both the query and the deliberately slow hash.
+public class Authenticator {
+    static final long CACHE_TTL_MS = Settings.getLong("salary.password.cacheSeconds", 60) * 1000;
+    static final int CACHE_SIZE = Settings.getInt("salary.password.cacheSize", 10000);
+
+    private static final ConcurrentHashMap<String, CachedLogin> cache = new ConcurrentHashMap<>();
+    private static final byte[] cacheKey = new byte[32];
+
+    private static final AtomicLong cacheHits = new AtomicLong();
+    private static final AtomicLong verified = new AtomicLong();
+    private static final AtomicLong rehashed = new AtomicLong();
+
+    static {
+        new SecureRandom().nextBytes(cacheKey);
+    }
+
+    private static final ThreadLocal<Mac> mac = new ThreadLocal<Mac>() {
+        @Override
+        protected Mac initialValue() {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(new SecretKeySpec(cacheKey, "HmacSHA256"));
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    };
+
+    // The member's role, or null if the username is unknown or the password is wrong.
+    public static String authenticate(String username, String password) throws SQLException {
+        if (username == null || password == null) {
+            return null;
+        }
+        byte[] fingerprint = CACHE_TTL_MS > 0 ? fingerprint(username, password) : null;
+        if (fingerprint != null) {
+            CachedLogin cached = cache.get(username);
+            if (cached != null && cached.expiresAt > System.currentTimeMillis()
+                    && MessageDigest.isEqual(cached.fingerprint, fingerprint)) {
+                cacheHits.incrementAndGet();
+                return cached.role;
+            }
+        }
+
+        String[] credentials = DBUtil.selectCredentials(username);
+        if (credentials == null) {
+            return null;
+        }
+        String stored = credentials[0];
+        PasswordHasher hasher = Passwords.hasherFor(stored);
+        verified.incrementAndGet();
+        if (hasher == null || !hasher.matches(password, stored)) {
+            cache.remove(username);
+            return null;
+        }
+        if (hasher != Passwords.current() || hasher.needsRehash(stored)) {
+            if (DBUtil.updatePassword(username, stored, Passwords.hash(password))) {
+                rehashed.incrementAndGet();
+            }
+        }
+
+        String role = credentials[1];
+        if (fingerprint != null) {
+            if (cache.size() >= CACHE_SIZE) {
+                evict();
+            }
+            cache.put(username, new CachedLogin(fingerprint, role, System.currentTimeMillis() + CACHE_TTL_MS));
+        }
+        return role;
+    }
+
+    // Forget a member's cached login. Register calls it so a username freed in the database and
+    // registered again never logs in with the old password; other edits made directly in the
+    // database show once the entry expires.
+    public static void forget(String username) {
+        cache.remove(username);
+    }
+
+    // Drops expired logins and, if the cache is still over 90% full, the oldest live ones down to
+    // that mark, so a full cache costs one sweep per CACHE_SIZE / 10 new logins rather than
+    // losing every entry.
+    private static synchronized void evict() {
+        if (cache.size() < CACHE_SIZE) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(login -> login.expiresAt <= now);
+        int excess = cache.size() - CACHE_SIZE * 9 / 10;
+        if (excess <= 0) {
+            return;
+        }
+        long[] expiries = new long[cache.size()];
+        int n = 0;
+        for (CachedLogin login : cache.values()) {
+            if (n == expiries.length) {
+                break;
+            }
+            expiries[n++] = login.expiresAt;
+        }
+        if (n == 0) {
+            return;
+        }
+        Arrays.sort(expiries, 0, n);
+        long cutoff = expiries[Math.min(excess, n) - 1];
+        cache.values().removeIf(login -> login.expiresAt <= cutoff);
+    }
+
+    public static String stats() {
+        return "Logins: " + verified.get() + " verified, " + cacheHits.get() + " from cache, "
+                + rehashed.get() + " rehashed";
+    }
+
+    private static byte[] fingerprint(String username, String password) {
+        Mac hmac = mac.get();
+        hmac.update(username.getBytes(StandardCharsets.UTF_8));
+        hmac.update((byte) 0);
+        return hmac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final class CachedLogin {
+        final byte[] fingerprint;
+        final String role;
+        final long expiresAt;
+
+        CachedLogin(byte[] fingerprint, String role, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.role = role;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
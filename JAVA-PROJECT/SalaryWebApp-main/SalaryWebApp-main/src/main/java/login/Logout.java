@@ -5,17 +5,14 @@ import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import utils.DBUtil;
 
 import java.io.IOException;
-import java.io.PrintWriter;
 @WebServlet(urlPatterns = {"/logout"})
 public class Logout extends HttpServlet {
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        DBUtil.connect();
-
-        req.getSession().invalidate();
+        SessionStore.remove(AuthFilter.token(req));
+        AuthFilter.setCookie(req, resp, null, true);
         resp.sendRedirect(req.getContextPath()+"/index.jsp");
     }
 }
@@ -1,23 +1,54 @@
 package login;
 
-import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
-public class MD5 {
+// Unsalted MD5 hex, the format every member row was stored in before Passwords existed. Kept
+// only to verify those rows once; a successful login replaces the hash with the current one.
+public class MD5 implements PasswordHasher {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
     public static String getMd5(String input) {
         try {
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            byte [] messageDigest = md.digest(input.getBytes());
-            BigInteger no = new BigInteger(1, messageDigest);
-
-            String hashtext = no.toString(16);
-            while (hashtext.length()<32) {
-                hashtext = "0" + hashtext;
+            byte[] digest = MessageDigest.getInstance("MD5").digest(input.getBytes(StandardCharsets.UTF_8));
+            char[] hex = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                hex[i * 2] = HEX[(digest[i] >> 4) & 0xf];
+                hex[i * 2 + 1] = HEX[digest[i] & 0xf];
             }
-            return hashtext;
+            return new String(hex);
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException(e);
         }
     }
+
+    @Override
+    public String hash(String password) {
+        return getMd5(password);
+    }
+
+    @Override
+    public boolean recognizes(String stored) {
+        if (stored == null || stored.length() != 32) {
+            return false;
+        }
+        for (int i = 0; i < stored.length(); i++) {
+            if (Character.digit(stored.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean matches(String password, String stored) {
+        return MessageDigest.isEqual(getMd5(password).getBytes(StandardCharsets.US_ASCII),
+                stored.toLowerCase().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public boolean needsRehash(String stored) {
+        return true;
+    }
 }
@@ -0,0 +1,14 @@
+package login;
+
+// One way of storing passwords. Stored hashes carry their own parameters, so a hasher can tell
+// whether a hash it accepts was made with weaker settings than the current ones.
+public interface PasswordHasher {
+    String hash(String password);
+
+    // True if this hasher produced the stored value, whatever its cost settings were.
+    boolean recognizes(String stored);
+
+    boolean matches(String password, String stored);
+
+    boolean needsRehash(String stored);
+}
@@ -0,0 +1,44 @@
+package login;
+
+import utils.Settings;
+
+// Picks the hasher for new passwords (salary.password.hasher: "pbkdf2" or the class name of a
+// PasswordHasher with a no-argument constructor) and the one that can check a stored value.
+public class Passwords {
+    static final int PBKDF2_ITERATIONS = Settings.getInt("salary.password.pbkdf2.iterations", 210000);
+
+    private static final PasswordHasher current = create(Settings.getString("salary.password.hasher", "pbkdf2"));
+    private static final PasswordHasher[] legacy = {new MD5()};
+
+    public static PasswordHasher current() {
+        return current;
+    }
+
+    public static String hash(String password) {
+        return current.hash(password);
+    }
+
+    // The hasher that understands the stored value, or null if none does.
+    public static PasswordHasher hasherFor(String stored) {
+        if (current.recognizes(stored)) {
+            return current;
+        }
+        for (PasswordHasher hasher : legacy) {
+            if (hasher.recognizes(stored)) {
+                return hasher;
+            }
+        }
+        return null;
+    }
+
+    static PasswordHasher create(String name) {
+        if (name.equals("pbkdf2")) {
+            return new Pbkdf2Hasher(PBKDF2_ITERATIONS);
+        }
+        try {
+            return (PasswordHasher) Class.forName(name).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException("Unknown password hasher: " + name, e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package login;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+// PBKDF2-HMAC-SHA256, stored as pbkdf2-sha256$<iterations>$<salt>$<hash> with base64 fields.
+public class Pbkdf2Hasher implements PasswordHasher {
+    static final String PREFIX = "pbkdf2-sha256$";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private static final SecureRandom random = new SecureRandom();
+
+    private final int iterations;
+
+    public Pbkdf2Hasher(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("iterations must be positive: " + iterations);
+        }
+        this.iterations = iterations;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    @Override
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + "$" + base64.encodeToString(salt) + "$"
+                + base64.encodeToString(derive(password, salt, iterations));
+    }
+
+    @Override
+    public boolean recognizes(String stored) {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+
+    @Override
+    public boolean matches(String password, String stored) {
+        String[] fields = fields(stored);
+        if (fields == null) {
+            return false;
+        }
+        Base64.Decoder base64 = Base64.getDecoder();
+        byte[] expected = base64.decode(fields[2]);
+        return MessageDigest.isEqual(expected, derive(password, base64.decode(fields[1]), Integer.parseInt(fields[0])));
+    }
+
+    @Override
+    public boolean needsRehash(String stored) {
+        String[] fields = fields(stored);
+        return fields == null || Integer.parseInt(fields[0]) < iterations;
+    }
+
+    // {iterations, salt, hash}, or null if the value is not one of ours
+    private static String[] fields(String stored) {
+        if (stored == null || !stored.startsWith(PREFIX)) {
+            return null;
+        }
+        String[] fields = stored.substring(PREFIX.length()).split("\\$");
+        return fields.length == 3 ? fields : null;
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package login;
+
+import utils.Settings;
+
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+// In-memory sessions keyed by an unguessable token. Lookups are a single hash probe; sessions
+// idle for longer than the timeout are refused on lookup and removed by a background sweep.
+public class SessionStore {
+    static final long TIMEOUT_MS = Settings.getLong("salary.session.timeoutMinutes", 30) * 60000;
+    static final long SWEEP_INTERVAL_MS = Settings.getLong("salary.session.sweepSeconds", 60) * 1000;
+
+    private static final long TOUCH_GRANULARITY_MS = 1000;
+    private static final int TOKEN_BYTES = 32;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final SecureRandom random = new SecureRandom();
+    private static final ConcurrentHashMap<String, UserSession> sessions = new ConcurrentHashMap<>();
+    private static ScheduledExecutorService sweeper;
+
+    public static UserSession create(String username, boolean admin) {
+        UserSession session = new UserSession(newToken(), username, admin, System.currentTimeMillis());
+        sessions.put(session.getToken(), session);
+        return session;
+    }
+
+    public static UserSession get(String token) {
+        if (token == null) {
+            return null;
+        }
+        UserSession session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (now - session.getLastAccess() > TIMEOUT_MS) {
+            sessions.remove(token, session);
+            return null;
+        }
+        // idle time only needs second precision; skipping the write keeps concurrent requests of
+        // one user from bouncing the same cache line
+        if (now - session.getLastAccess() > TOUCH_GRANULARITY_MS) {
+            session.touch(now);
+        }
+        return session;
+    }
+
+    public static void remove(String token) {
+        if (token != null) {
+            sessions.remove(token);
+        }
+    }
+
+    public static int size() {
+        return sessions.size();
+    }
+
+    public static int sweep() {
+        long expiredBefore = System.currentTimeMillis() - TIMEOUT_MS;
+        int removed = 0;
+        Iterator<UserSession> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getLastAccess() < expiredBefore) {
+                iterator.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    static synchronized void startSweeper() {
+        if (sweeper != null) {
+            return;
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "session-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        sweeper.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                int removed = sweep();
+                if (removed > 0) {
+                    System.out.println("Expired " + removed + " sessions, " + size() + " active");
+                }
+            }
+        }, SWEEP_INTERVAL_MS, SWEEP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    static synchronized void stopSweeper() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+            sweeper = null;
+        }
+        sessions.clear();
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        char[] chars = new char[TOKEN_BYTES * 2];
+        for (int i = 0; i < TOKEN_BYTES; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+}
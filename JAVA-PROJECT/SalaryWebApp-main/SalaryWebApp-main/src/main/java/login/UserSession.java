@@ -0,0 +1,37 @@
+package login;
+
+// Who a request belongs to. Created at login, held by SessionStore under a random token that
+// the browser sends back in a cookie; AuthFilter resolves it once per request.
+public class UserSession {
+    private final String token;
+    private final String username;
+    private final boolean admin;
+    private volatile long lastAccess;
+
+    UserSession(String token, String username, boolean admin, long now) {
+        this.token = token;
+        this.username = username;
+        this.admin = admin;
+        this.lastAccess = now;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public boolean isAdmin() {
+        return admin;
+    }
+
+    long getLastAccess() {
+        return lastAccess;
+    }
+
+    void touch(long now) {
+        lastAccess = now;
+    }
+}
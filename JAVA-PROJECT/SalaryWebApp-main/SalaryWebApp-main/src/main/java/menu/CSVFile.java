@@ -1,61 +1,112 @@
 package menu;
 
 import jakarta.servlet.ServletException;
-import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import login.LoginPage;
+import metrics.QueryTimer;
+import utils.Blocking;
+import utils.ConnectionPool;
 import utils.DBUtil;
 
-import javax.sql.rowset.serial.SerialException;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.zip.GZIPOutputStream;
 
-@WebServlet(urlPatterns = {"/exportCSV"})
+@WebServlet(urlPatterns = {"/exportCSV"}, asyncSupported = true)
 public class CSVFile extends HttpServlet {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int FLUSH_EVERY_ROWS = 5000;
+    private static final String QUERY = "select age, gender, education_level, years_of_experience, job_title, salary from salary_view";
 
+    // An export holds its cursor for as long as the client takes to download it.
+    @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        DBUtil.connect();
-//        PrintWriter writer = resp.getWriter();
-        ResultSet rs = null;
-        if (LoginPage.isValid) {
-            try {
-                resp.setContentType("text/csv");
-                resp.setHeader("Content-Disposition", "attachment; filename=\"SalaryData.csv\"");
-
-                rs = DBUtil.selectAll("salary_view");
-                ServletOutputStream outputStream = resp.getOutputStream();
-                PrintWriter writer = new PrintWriter(new OutputStreamWriter(outputStream, "UTF-8"));
+        Blocking.run(req, resp, this::render);
+    }
+
+    private void render(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        if (LoginPage.isValid(req)) {
+            resp.setContentType("text/csv");
+            resp.setCharacterEncoding("UTF-8");
+            resp.setHeader("Content-Disposition", "attachment; filename=\"SalaryData.csv\"");
+
+            OutputStream outputStream = resp.getOutputStream();
+            if (acceptsGzip(req)) {
+                resp.setHeader("Content-Encoding", "gzip");
+                resp.setHeader("Vary", "Accept-Encoding");
+                // syncFlush so every periodic flush actually reaches the client
+                outputStream = new GZIPOutputStream(outputStream, BUFFER_SIZE, true);
+            }
+
+            long start = System.nanoTime();
+            long rows = 0;
+            // Rows are read from a streaming cursor and written as they arrive, so heap use does
+            // not depend on the size of salary_view.
+            try (Connection connection = ConnectionPool.getConnection();
+                 QueryTimer timer = QueryTimer.start(QUERY);
+                 PreparedStatement statement = DBUtil.prepareStreaming(connection, QUERY);
+                 ResultSet rs = statement.executeQuery();
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE)) {
 
                 // Write CSV headers
-                writer.println("age,gender,education_level,years_of_experience,job_title,salary");
+                writer.write("age,gender,education_level,years_of_experience,job_title,salary\n");
 
                 // Write CSV data rows
+                StringBuilder row = new StringBuilder(128);
                 while (rs.next()) {
-                    int age = rs.getInt("age");
-                    String gender = rs.getString("gender");
-                    String education_level = rs.getString("education_level");
-                    float years_of_experience = rs.getFloat("years_of_experience");
-                    String job_title = rs.getString("job_title");
-                    int salary = rs.getInt("salary");
-                    writer.println(age + "," + gender + "," + education_level + "," + years_of_experience + "," + job_title + "," + salary);
+                    row.setLength(0);
+                    row.append(rs.getInt(1)).append(',');
+                    appendField(row, rs.getString(2)).append(',');
+                    appendField(row, rs.getString(3)).append(',');
+                    row.append(rs.getFloat(4)).append(',');
+                    appendField(row, rs.getString(5)).append(',');
+                    row.append(rs.getInt(6)).append('\n');
+                    writer.append(row);
+                    timer.row();
+                    if (++rows % FLUSH_EVERY_ROWS == 0) {
+                        writer.flush();
+                    }
                 }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
 
-                writer.flush();
-                writer.close();
+            long millis = Math.max(1, (System.nanoTime() - start) / 1000000);
+            System.out.println("CSV export: " + rows + " rows in " + millis + " ms (" + rows * 1000 / millis + " rows/s)");
+        }
+    }
 
-                outputStream.flush();
-                outputStream.close();
+    private static boolean acceptsGzip(HttpServletRequest req) {
+        String acceptEncoding = req.getHeader("Accept-Encoding");
+        return acceptEncoding != null && acceptEncoding.contains("gzip");
+    }
 
-                rs.close();
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
+    private static StringBuilder appendField(StringBuilder row, String value) {
+        if (value == null) {
+            return row;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return row.append(value);
+        }
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                row.append('"');
             }
+            row.append(c);
         }
+        return row.append('"');
     }
 }
@@ -0,0 +1,85 @@
+package menu;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import login.LoginPage;
+import utils.Blocking;
+import utils.Json;
+import utils.PagedTable;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+// JSON source for the listing pages, in the DataTables server-side processing format:
+// dataTable?table=users|jobs|relations&draw=..&start=..&length=..&search[value]=..&order[0][column]=..&order[0][dir]=..
+@WebServlet(urlPatterns = {"/dataTable"}, asyncSupported = true)
+public class DataTable extends HttpServlet {
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        Blocking.run(req, resp, this::render);
+    }
+
+    private void render(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        if (!LoginPage.isValid(req)) {
+            resp.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        PagedTable table;
+        try {
+            table = PagedTable.forName(req.getParameter("table"));
+        } catch (IllegalArgumentException e) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        int draw = intParameter(req, "draw", 0);
+        int start = intParameter(req, "start", 0);
+        int length = intParameter(req, "length", 10);
+        int sortColumn = intParameter(req, "order[0][column]", 0);
+        boolean descending = "desc".equalsIgnoreCase(req.getParameter("order[0][dir]"));
+        String search = req.getParameter("search[value]");
+
+        PagedTable.Page page;
+        try {
+            page = table.fetch(sortColumn, descending, search, start, length < 0 ? Integer.MAX_VALUE : length);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+
+        StringBuilder json = new StringBuilder(256 + page.getRows().size() * 64);
+        json.append("{\"draw\":").append(draw)
+                .append(",\"recordsTotal\":").append(page.getTotal())
+                .append(",\"recordsFiltered\":").append(page.getFiltered())
+                .append(",\"data\":[");
+        for (int r = 0; r < page.getRows().size(); r++) {
+            Object[] row = page.getRows().get(r);
+            json.append(r == 0 ? "[" : ",[");
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                Json.appendValue(json, row[i]);
+            }
+            json.append(']');
+        }
+        json.append("]}");
+
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("UTF-8");
+        resp.getWriter().write(json.toString());
+    }
+
+    private static int intParameter(HttpServletRequest req, String name, int defaultValue) {
+        String value = req.getParameter(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package menu;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import login.LoginPage;
+import predict.Predictors;
+import utils.BulkDelete;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Admin purge of many rows at once: POST deleteBulk?table=users|jobs|relations with the ids either
+// in an "ids" parameter or as the request body, separated by commas or whitespace. Answers with
+// the rows deleted per table, e.g. {"requested":3,"deleted":{"salary_datas":4,"users":3},...}.
+@WebServlet(urlPatterns = {"/deleteBulk"})
+public class DeleteDataBulk extends HttpServlet {
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        if (!LoginPage.isValid(req)) {
+            resp.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        if (!LoginPage.isAdmin(req)) {
+            resp.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        String table = req.getParameter("table");
+        List<Integer> ids;
+        try {
+            String param = req.getParameter("ids");
+            ids = param != null ? parseIds(param) : parseIds(req.getReader());
+        } catch (NumberFormatException e) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "ids must be integers: " + e.getMessage());
+            return;
+        }
+
+        BulkDelete.Result result;
+        try {
+            if ("users".equals(table)) {
+                result = BulkDelete.deleteUsers(ids);
+            } else if ("jobs".equals(table)) {
+                result = BulkDelete.deleteJobs(ids);
+            } else if ("relations".equals(table) || "salary_datas".equals(table)) {
+                result = BulkDelete.deleteRelations(ids);
+            } else {
+                resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown table: " + table);
+                return;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        if (result.getTotalRows() > 0) {
+            Predictors.trainingDataChanged();
+        }
+
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("UTF-8");
+        resp.getWriter().write(result.toJson());
+    }
+
+    static List<Integer> parseIds(String text) {
+        List<Integer> ids = new ArrayList<>();
+        for (String token : text.split("[,\\s]+")) {
+            if (!token.isEmpty()) {
+                ids.add(Integer.valueOf(token));
+            }
+        }
+        return ids;
+    }
+
+    private static List<Integer> parseIds(BufferedReader reader) throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            ids.addAll(parseIds(line));
+        }
+        return ids;
+    }
+}
@@ -1,174 +1,111 @@
 package menu;
 
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import login.LoginPage;
-import utils.DBUtil;
+import predict.PredictionExecutor;
+import predict.Predictors;
+import template.HtmlOutput;
+import template.Pages;
+import template.Template;
+import utils.Blocking;
+import utils.JobsCache;
 
-import java.io.*;
-import java.nio.charset.StandardCharsets;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
-@WebServlet(urlPatterns = "/predictData")
+@WebServlet(urlPatterns = "/predictData", asyncSupported = true)
 public class Predict extends HttpServlet {
+    private static final Template FIELDS = Template.compile("                  <div class=\"form-floating mb-3\">\n" +
+            "                    <input type=\"text\" class=\"form-control\" id=\"age\" placeholder=\"20\" name=\"age\">\n" +
+            "                  <label for=\"age\">Age</label>\n" +
+            "                </div>\n" +
+            "                <select class=\"form-select mb-3\" aria-label=\"Default select example\" name=\"gender\" id=\"gender\">\n" +
+            "                  <option selected>Gender</option>\n" +
+            "                  <option value=\"0\">Male</option>\n" +
+            "                  <option value=\"1\">Female</option>\n" +
+            "                </select>\n" +
+            "                <select class=\"form-select mb-3\" aria-label=\"Default select example\" name=\"education_level\" id=\"education_level\">\n" +
+            "                  <option selected>Education Level</option>\n" +
+            "                  <option value=\"0\">Bachelor's</option>\n" +
+            "                  <option value=\"1\">Master's</option>\n" +
+            "                  <option value=\"2\">PhD</option>\n" +
+            "                </select>\n" +
+            "                <div class=\"form-floating mb-3\">\n" +
+            "                  <input type=\"text\" class=\"form-control\" id=\"years_of_experience\" placeholder=\"5\" name=\"years_of_experience\">\n" +
+            "                  <label for=\"years_of_experience\">Years of Experience</label>\n" +
+            "                </div>\n");
+
+    private static final Template SUBMIT = Template.compile("                <div class=\"text-center\">\n" +
+            "                  <button class=\"btn btn-primary\" type=\"submit\" >Predict</button>\n" +
+            "                </div>\n" +
+            "              </form>\n" +
+            "              </div>\n" +
+            "            </div>\n");
+
+    private static final Template RESULT = Template.compile("            <div class=\"row\">\n" +
+            "              <div class=\"col-lg-6\">\n" +
+            "                <form action=\"\" method=\"post\">\n" +
+            "                  <div class=\"form-floating mb-3\">\n" +
+            "                    <input type=\"text\" class=\"form-control\" id=\"age\" placeholder=\"20\" name=\"age\" value='{{age}}' readonly>\n" +
+            "                  <label for=\"age\">Age</label>\n" +
+            "                </div>\n" +
+            "                  <div class=\"form-floating mb-3\">\n" +
+            "                    <input type=\"text\" class=\"form-control\" id=\"gender\" placeholder=\"20\" name=\"gender\" value='{{gender}}' readonly>\n" +
+            "                  <label for=\"gender\">Gender</label>\n" +
+            "                </div>\n" +
+            "                  <div class=\"form-floating mb-3\">\n" +
+            "                    <input type=\"text\" class=\"form-control\" id=\"education_level\" placeholder=\"20\" name=\"education_level\" value='{{education_level}}' readonly>\n" +
+            "                  <label for=\"education_level\">Education Level</label>\n" +
+            "                </div>\n" +
+            "                  <div class=\"form-floating mb-3\">\n" +
+            "                    <input type=\"text\" class=\"form-control\" id=\"job_title\" placeholder=\"20\" name=\"job_title\" value='{{job_title}}' readonly>\n" +
+            "                  <label for=\"job_title\">Job Title</label>\n" +
+            "                </div>\n" +
+            "                  <div class=\"form-floating mb-3\">\n" +
+            "                    <input type=\"text\" class=\"form-control\" id=\"years_of_experience\" placeholder=\"20\" name=\"years_of_experience\" value='{{years_of_experience}}' readonly>\n" +
+            "                  <label for=\"years_of_experience\">Years Of Experience</label>\n" +
+            "                </div>\n" +
+            "              </form>\n");
+
+    private static final Template SALARY = Template.compile("<h4> Salary = ${{salary}}</h4>\n");
+
+    private static final Template MISSING_INPUT = Template.compile("<h4> Please fill every column </h4>\n");
+
+    private static final Template BACK = Template.compile("<a href=\"main\" class=\"btn btn-primary\"> Back to Main Menu </a>\n" +
+            "              </div>\n" +
+            "            </div>\n");
+
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        PrintWriter writer = resp.getWriter();
-        ResultSet rs = null;
-        if (LoginPage.isValid) {
+        if (LoginPage.isValid(req)) {
+            JobsCache.Jobs jobs;
             try {
-            writer.println("<html>");
-            writer.println("  <head>\n" +
-                    "    <!-- Required meta tags -->\n" +
-                    "    <meta charset=\"utf-8\">\n" +
-                    "    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1\">\n" +
-                    "\n" +
-                    "    <link rel=\"icon\" type=\"image/png\" href=\"https://lh3.googleusercontent.com/pw/AJFCJaX6FIwtFds-OdncRF5Eh4NpiaWx9y5nUmMn_KI2YHqRBY-rhoEmGjXsieFX5V3bhcPAEg-SIlGvKLeMjiSxyeCsQ2zhMfdYuaChvvgSOjIggEivvoXooPOzbyLRGe2WhfjeVswUVey-x_OVNAHnJDA=w190-h185-s-no?authuser=0\">\n" +
-                    "    <!-- Bootstrap CSS -->\n" +
-                    "    <link href=\"https://cdn.jsdelivr.net/npm/bootstrap@5.0.2/dist/css/bootstrap.min.css\" rel=\"stylesheet\" integrity=\"sha384-EVSTQN3/azprG1Anm3QDgpJLIm9Nao0Yz1ztcQTwFspd3yD65VohhpuuCOmLASjC\" crossorigin=\"anonymous\">\n" +
-                    "    <link rel=\"stylesheet\" href=\"https://cdn.datatables.net/1.13.4/css/dataTables.bootstrap5.min.css\">\n" +
-                    "    <title>Salary Prediction | Main</title>\n" +
-                    "  </head>");
-            writer.println("<body>");
-            writer.println("    <header class=\"py-3 mb-3 bg-dark text-white\">\n" +
-                    "        <div class=\"container-fluid d-grid gap-3 align-items-center\" style=\"grid-template-columns: 1fr 2fr;\">\n" +
-                    "            <ul class=\"text-center m-auto\">\n" +
-                    "                <li>\n" +
-                    "                    <h4 class=\"m-1\">Salary Prediction</h4>\n" +
-                    "                </li>\n" +
-                    "            </ul>\n" +
-                    "          <div class=\"d-flex justify-content-end\">    \n" +
-                    "            <div class=\"flex-shrink-0 dropdown\">\n" +
-                    "              <a href=\"#\" class=\"d-block link-light text-decoration-none dropdown-toggle\" id=\"dropdownUser\" data-bs-toggle=\"dropdown\" aria-expanded=\"false\">\n" +
-                    "                <img src=\"https://cdn-icons-png.flaticon.com/512/3135/3135715.png\" alt=\"mdo\" width=\"32\" height=\"32\" class=\"rounded-circle\">\n" +
-                    "              </a>\n" +
-                    "              <ul class=\"dropdown-menu text-small shadow\" aria-labelledby=\"dropdownUser\" style=\"\">\n" +
-                    "                <li><a class=\"dropdown-item\" href=\"logout\">Sign out</a></li>\n" +
-                    "              </ul>\n" +
-                    "            </div>\n" +
-                    "          </div>\n" +
-                    "        </div>\n" +
-                    "    </header>");
-            writer.println("    <div class=\"container-fluid\">\n" +
-                    "      <div class=\"row\">\n" +
-                    "        <nav id=\"sidebarMenu\" class=\"col-md-3 col-lg-2 d-md-block bg-light sidebar collapse\">\n" +
-                    "          <div class=\"position-sticky pt-3\">\n" +
-                    "            <ul class=\"nav flex-column\">\n" +
-                    "              <li class=\"nav-item\">\n" +
-                    "                <a class=\"nav-link active\" aria-current=\"page\" href=\"main\" style=\"color: black;\">\n" +
-                    "                  View Data\n" +
-                    "                </a>\n" +
-                    "              </li>\n");
-            if (LoginPage.isAdmin) {
-                writer.println("              <li class=\"nav-item\">\n" +
-                        "                <button class=\"btn btn-toggle align-items-center rounded\" data-bs-toggle=\"collapse\" data-bs-target=\"#create-collapse\" aria-expanded=\"false\">\n" +
-                        "                  Create Data\n" +
-                        "                </button>\n" +
-                        "                <div class=\"collapse\" id=\"create-collapse\" style=\"\">\n" +
-                        "                  <ul class=\"btn-toggle-nav list-unstyled fw-normal pb-1 small\">\n" +
-                        "                    <li><a href=\"createDataUser\" class=\"link-dark rounded m-4\">User</a></li>\n" +
-                        "                    <li><a href=\"createDataJob\" class=\"link-dark rounded m-4\">Job</a></li>\n" +
-                        "                    <li><a href=\"createDataRelation\" class=\"link-dark rounded m-4\">Relation</a></li>\n" +
-                        "                  </ul>\n" +
-                        "                </div>" +
-                        "              </li>\n" +
-                        "              <li class=\"nav-item\">\n" +
-                        "                <button class=\"btn btn-toggle align-items-center rounded\" data-bs-toggle=\"collapse\" data-bs-target=\"#update-collapse\" aria-expanded=\"false\">\n" +
-                        "                  Update Data\n" +
-                        "                </button>\n" +
-                        "                <div class=\"collapse\" id=\"update-collapse\" style=\"\">\n" +
-                        "                  <ul class=\"btn-toggle-nav list-unstyled fw-normal pb-1 small\">\n" +
-                        "                    <li><a href=\"getDataUser\" class=\"link-dark rounded m-4\">User</a></li>\n" +
-                        "                    <li><a href=\"getDataJob\" class=\"link-dark rounded m-4\">Job</a></li>\n" +
-                        "                    <li><a href=\"getDataRelation\" class=\"link-dark rounded m-4\">Relation</a></li>\n" +
-                        "                  </ul>\n" +
-                        "                </div>" +
-                        "              </li>\n" +
-                        "              <li class=\"nav-item\">\n" +
-                        "                <button class=\"btn btn-toggle align-items-center rounded\" data-bs-toggle=\"collapse\" data-bs-target=\"#delete-collapse\" aria-expanded=\"false\">\n" +
-                        "                  Delete Data\n" +
-                        "                </button>\n" +
-                        "                <div class=\"collapse\" id=\"delete-collapse\" style=\"\">\n" +
-                        "                  <ul class=\"btn-toggle-nav list-unstyled fw-normal pb-1 small\">\n" +
-                        "                    <li><a href=\"deleteDataUser\" class=\"link-dark rounded m-4\">User</a></li>\n" +
-                        "                    <li><a href=\"deleteDataJob\" class=\"link-dark rounded m-4\">Job</a></li>\n" +
-                        "                    <li><a href=\"deleteDataRelation\" class=\"link-dark rounded m-4\">Relation</a></li>\n" +
-                        "                  </ul>\n" +
-                        "                </div>" +
-                        "              </li>\n");
-            }
-            writer.println(        "              <li class=\"nav-item\">\n" +
-                    "                <a class=\"nav-link\" href=\"predictData\" style=\"color: black;\">\n" +
-                    "                  Predict Salary\n" +
-                    "                </a>\n" +
-                    "              </li>\n" +
-                    "            </ul>\n" +
-                    "          </div>\n" +
-                    "        </nav>\n");
-            writer.println("<main class=\"col-md-9 ms-sm-auto col-lg-10 px-md-4\">\n" +
-                    "            <div class=\"d-flex justify-content-between flex-wrap flex-md-nowrap align-items-center pt-3 pb-2 mb-3 border-bottom\">\n" +
-                    "             <h1 class=\"h2\">Predict Salary Users</h1>\n" +
-                    "            </div>\n" +
-                    "            <div class=\"row\">\n" +
-                    "              <div class=\"col-lg-6\">\n" +
-                    "                <form action=\"predictData\" method=\"post\">\n" +
-                    "                  <div class=\"form-floating mb-3\">\n" +
-                    "                    <input type=\"text\" class=\"form-control\" id=\"age\" placeholder=\"20\" name=\"age\">\n" +
-                    "                  <label for=\"age\">Age</label>\n" +
-                    "                </div>\n" +
-                    "                <select class=\"form-select mb-3\" aria-label=\"Default select example\" name=\"gender\" id=\"gender\">\n" +
-                    "                  <option selected>Gender</option>\n" +
-                    "                  <option value=\"0\">Male</option>\n" +
-                    "                  <option value=\"1\">Female</option>\n" +
-                    "                </select>\n" +
-                    "                <select class=\"form-select mb-3\" aria-label=\"Default select example\" name=\"education_level\" id=\"education_level\">\n" +
-                    "                  <option selected>Education Level</option>\n" +
-                    "                  <option value=\"0\">Bachelor's</option>\n" +
-                    "                  <option value=\"1\">Master's</option>\n" +
-                    "                  <option value=\"2\">PhD</option>\n" +
-                    "                </select>\n" +
-                    "                <div class=\"form-floating mb-3\">\n" +
-                    "                  <input type=\"text\" class=\"form-control\" id=\"years_of_experience\" placeholder=\"5\" name=\"years_of_experience\">\n" +
-                    "                  <label for=\"years_of_experience\">Years of Experience</label>\n" +
-                    "                </div>\n" +
-                    "                <select class=\"form-select mb-3\" aria-label=\"Default select example\" name=\"job_title\" id=\"job_title\">\n" +
-                    "                  <option selected>Job Title</option>\n");
-                                rs = DBUtil.selectAll("jobs");
-                                while (rs.next()) {
-                                    int jobId = rs.getInt("job_id");
-                                    String jobName = rs.getString("job_title");
-                                    writer.println("<option value='"+ jobId +"'>"+ jobName + "</option>");
-                                }
-                    writer.println("</select>\n" +
-                    "                <div class=\"text-center\">\n" +
-                    "                  <button class=\"btn btn-primary\" type=\"submit\" >Predict</button>\n" +
-                    "                </div>\n" +
-                    "              </form>\n" +
-                    "              </div>\n" +
-                    "            </div>\n" +
-                    "        </main> \n" +
-                    "      </div>\n" +
-                    "        \n" +
-                    "    </div>");
-            writer.println("    <script src=\"https://cdn.jsdelivr.net/npm/bootstrap@5.0.2/dist/js/bootstrap.bundle.min.js\" integrity=\"sha384-MrcW6ZMFYlzcLA8Nl+NtUVF0sA7MsXsP1UyJoMp4YLEuNSfAP+JcXn/tWtIaxVXM\" crossorigin=\"anonymous\"></script>\n");
-            writer.println("</body>\n" +
-                    "        \n" +
-                    "        <!-- Option 1: Bootstrap Bundle with Popper -->\n" +
-                    "        <script src=\"https://cdn.jsdelivr.net/npm/bootstrap@5.0.2/dist/js/bootstrap.bundle.min.js\" integrity=\"sha384-MrcW6ZMFYlzcLA8Nl+NtUVF0sA7MsXsP1UyJoMp4YLEuNSfAP+JcXn/tWtIaxVXM\" crossorigin=\"anonymous\"></script>\n" +
-                    "        <script src=\"https://code.jquery.com/jquery-3.5.1.js\"></script>");
-            writer.println("</html>");
-            writer.println("</html>");
+                jobs = JobsCache.get();
             } catch (SQLException e) {
                 throw new RuntimeException(e);
             }
+            HtmlOutput out = HtmlOutput.of(resp);
+            Pages.begin(out, LoginPage.isAdmin(req));
+            Pages.HEADING.write(out, "Predict Salary Users");
+            Pages.FORM_START.write(out, "predictData");
+            FIELDS.write(out);
+            Pages.SELECT_START.write(out, "job_title");
+            Pages.SELECT_PLACEHOLDER.write(out, "Job Title");
+            jobs.writeOptions(out, -1);
+            Pages.SELECT_END.write(out);
+            SUBMIT.write(out);
+            Pages.end(out);
         } else {
             LoginPage.unAuthorizedAccess(resp);
         }
@@ -176,161 +113,126 @@ public class Predict extends HttpServlet {
 
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        PrintWriter writer = resp.getWriter();
-        String age = req.getParameter("age");
-        String gender = req.getParameter("gender");
-        String education_level = req.getParameter("education_level");
-        String job_title = req.getParameter("job_title");
-        String years_of_experience = req.getParameter("years_of_experience");
+        final String age = req.getParameter("age");
+        final String gender = req.getParameter("gender");
+        final String education_level = req.getParameter("education_level");
+        final String job_title = req.getParameter("job_title");
+        final String years_of_experience = req.getParameter("years_of_experience");
 
 
-        if (LoginPage.isValid) {
-            ProcessBuilder processBuilder = new ProcessBuilder("python3",
-                    "/home/irfan/IdeaProjects/salaryJobWebApp/PredictSalary.py",
-                    "/home/irfan/IdeaProjects/salaryJobWebApp/SalaryData.csv",
-                    age, gender, education_level, job_title, years_of_experience);
-            Process process = processBuilder.start();
+        if (LoginPage.isValid(req)) {
+            final boolean admin = LoginPage.isAdmin(req);
+            final Blocking.GuardedResponse guarded = new Blocking.GuardedResponse(resp);
+            final AsyncContext async = req.startAsync(req, guarded);
+            async.setTimeout(PredictionExecutor.TIMEOUT_MS);
+            // whichever of the prediction, the timeout and an error gets here first owns the response;
+            // if the container gives up while the prediction is still writing, the guard stops it
+            final AtomicBoolean answered = new AtomicBoolean();
+            final AtomicReference<Future<?>> task = new AtomicReference<>();
+            async.addListener(new AsyncListener() {
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                    if (answered.compareAndSet(false, true)) {
+                        PredictionExecutor.timedOut();
+                        cancel(task.get());
+                        busy(async, "Prediction took too long, try again shortly");
+                    } else {
+                        guarded.abort("timed out after " + PredictionExecutor.TIMEOUT_MS + " ms");
+                    }
+                }
 
-            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-            String line;
-            writer.println("<html>");
-            writer.println("  <head>\n" +
-                    "    <!-- Required meta tags -->\n" +
-                    "    <meta charset=\"utf-8\">\n" +
-                    "    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1\">\n" +
-                    "\n" +
-                    "    <link rel=\"icon\" type=\"image/png\" href=\"https://lh3.googleusercontent.com/pw/AJFCJaX6FIwtFds-OdncRF5Eh4NpiaWx9y5nUmMn_KI2YHqRBY-rhoEmGjXsieFX5V3bhcPAEg-SIlGvKLeMjiSxyeCsQ2zhMfdYuaChvvgSOjIggEivvoXooPOzbyLRGe2WhfjeVswUVey-x_OVNAHnJDA=w190-h185-s-no?authuser=0\">\n" +
-                    "    <!-- Bootstrap CSS -->\n" +
-                    "    <link href=\"https://cdn.jsdelivr.net/npm/bootstrap@5.0.2/dist/css/bootstrap.min.css\" rel=\"stylesheet\" integrity=\"sha384-EVSTQN3/azprG1Anm3QDgpJLIm9Nao0Yz1ztcQTwFspd3yD65VohhpuuCOmLASjC\" crossorigin=\"anonymous\">\n" +
-                    "    <link rel=\"stylesheet\" href=\"https://cdn.datatables.net/1.13.4/css/dataTables.bootstrap5.min.css\">\n" +
-                    "    <title>Salary Prediction | Main</title>\n" +
-                    "  </head>");
-            writer.println("<body>");
-            writer.println("    <header class=\"py-3 mb-3 bg-dark text-white\">\n" +
-                    "        <div class=\"container-fluid d-grid gap-3 align-items-center\" style=\"grid-template-columns: 1fr 2fr;\">\n" +
-                    "            <ul class=\"text-center m-auto\">\n" +
-                    "                <li>\n" +
-                    "                    <h4 class=\"m-1\">Salary Prediction</h4>\n" +
-                    "                </li>\n" +
-                    "            </ul>\n" +
-                    "          <div class=\"d-flex justify-content-end\">    \n" +
-                    "            <div class=\"flex-shrink-0 dropdown\">\n" +
-                    "              <a href=\"#\" class=\"d-block link-light text-decoration-none dropdown-toggle\" id=\"dropdownUser2\" data-bs-toggle=\"dropdown\" aria-expanded=\"false\">\n" +
-                    "                <img src=\"https://cdn-icons-png.flaticon.com/512/3135/3135715.png\" alt=\"mdo\" width=\"32\" height=\"32\" class=\"rounded-circle\">\n" +
-                    "              </a>\n" +
-                    "              <ul class=\"dropdown-menu text-small shadow\" aria-labelledby=\"dropdownUser2\" style=\"\">\n" +
-                    "                <li><a class=\"dropdown-item\" href=\"logout\">Sign out</a></li>\n" +
-                    "              </ul>\n" +
-                    "            </div>\n" +
-                    "          </div>\n" +
-                    "        </div>\n" +
-                    "    </header>");
-            writer.println("    <div class=\"container-fluid\">\n" +
-                    "      <div class=\"row\">\n" +
-                    "        <nav id=\"sidebarMenu\" class=\"col-md-3 col-lg-2 d-md-block bg-light sidebar collapse\">\n" +
-                    "          <div class=\"position-sticky pt-3\">\n" +
-                    "            <ul class=\"nav flex-column\">\n" +
-                    "              <li class=\"nav-item\">\n" +
-                    "                <a class=\"nav-link active\" aria-current=\"page\" href=\"main\" style=\"color: black;\">\n" +
-                    "                  View Data\n" +
-                    "                </a>\n" +
-                    "              </li>\n");
-            if (LoginPage.isAdmin) {
-                writer.println("              <li class=\"nav-item\">\n" +
-                        "                <button class=\"btn btn-toggle align-items-center rounded\" data-bs-toggle=\"collapse\" data-bs-target=\"#create-collapse\" aria-expanded=\"false\">\n" +
-                        "                  Create Data\n" +
-                        "                </button>\n" +
-                        "                <div class=\"collapse\" id=\"create-collapse\" style=\"\">\n" +
-                        "                  <ul class=\"btn-toggle-nav list-unstyled fw-normal pb-1 small\">\n" +
-                        "                    <li><a href=\"createDataUser\" class=\"link-dark rounded m-4\">User</a></li>\n" +
-                        "                    <li><a href=\"createDataJob\" class=\"link-dark rounded m-4\">Job</a></li>\n" +
-                        "                    <li><a href=\"createDataRelation\" class=\"link-dark rounded m-4\">Relation</a></li>\n" +
-                        "                  </ul>\n" +
-                        "                </div>" +
-                        "              </li>\n" +
-                        "              <li class=\"nav-item\">\n" +
-                        "                <button class=\"btn btn-toggle align-items-center rounded\" data-bs-toggle=\"collapse\" data-bs-target=\"#update-collapse\" aria-expanded=\"false\">\n" +
-                        "                  Update Data\n" +
-                        "                </button>\n" +
-                        "                <div class=\"collapse\" id=\"update-collapse\" style=\"\">\n" +
-                        "                  <ul class=\"btn-toggle-nav list-unstyled fw-normal pb-1 small\">\n" +
-                        "                    <li><a href=\"getDataUser\" class=\"link-dark rounded m-4\">User</a></li>\n" +
-                        "                    <li><a href=\"getDataJob\" class=\"link-dark rounded m-4\">Job</a></li>\n" +
-                        "                    <li><a href=\"getDataRelation\" class=\"link-dark rounded m-4\">Relation</a></li>\n" +
-                        "                  </ul>\n" +
-                        "                </div>" +
-                        "              </li>\n" +
-                        "              <li class=\"nav-item\">\n" +
-                        "                <button class=\"btn btn-toggle align-items-center rounded\" data-bs-toggle=\"collapse\" data-bs-target=\"#delete-collapse\" aria-expanded=\"false\">\n" +
-                        "                  Delete Data\n" +
-                        "                </button>\n" +
-                        "                <div class=\"collapse\" id=\"delete-collapse\" style=\"\">\n" +
-                        "                  <ul class=\"btn-toggle-nav list-unstyled fw-normal pb-1 small\">\n" +
-                        "                    <li><a href=\"deleteDataUser\" class=\"link-dark rounded m-4\">User</a></li>\n" +
-                        "                    <li><a href=\"deleteDataJob\" class=\"link-dark rounded m-4\">Job</a></li>\n" +
-                        "                    <li><a href=\"deleteDataRelation\" class=\"link-dark rounded m-4\">Relation</a></li>\n" +
-                        "                  </ul>\n" +
-                        "                </div>" +
-                        "              </li>\n");
-            }
-            writer.println("<li class=\"nav-item\">\n" +
-                    "                <a class=\"nav-link\" href=\"predictData\" style=\"color: black;\">\n" +
-                    "                  Predict Salary\n" +
-                    "                </a>\n" +
-                    "              </li>\n" +
-                    "            </ul>\n" +
-                    "          </div>\n" +
-                    "        </nav>\n");
-            writer.println("<main class=\"col-md-9 ms-sm-auto col-lg-10 px-md-4\">\n" +
-                    "            <div class=\"d-flex justify-content-between flex-wrap flex-md-nowrap align-items-center pt-3 pb-2 mb-3 border-bottom\">\n" +
-                    "             <h1 class=\"h2\">Results of Prediction</h1>\n" +
-                    "            </div>\n" +
-                    "            <div class=\"row\">\n" +
-                    "              <div class=\"col-lg-6\">\n" +
-                    "                <form action=\"\" method=\"post\">\n" +
-                    "                  <div class=\"form-floating mb-3\">\n" +
-                    "                    <input type=\"text\" class=\"form-control\" id=\"age\" placeholder=\"20\" name=\"age\" value='"+age+"'readonly>\n" +
-                    "                  <label for=\"age\">Age</label>\n" +
-                    "                </div>\n" +
-                    "                  <div class=\"form-floating mb-3\">\n" +
-                    "                    <input type=\"text\" class=\"form-control\" id=\"gender\" placeholder=\"20\" name=\"gender\" value='"+gender+"'readonly>\n" +
-                    "                  <label for=\"gender\">Gender</label>\n" +
-                    "                </div>\n" +
-                    "                  <div class=\"form-floating mb-3\">\n" +
-                    "                    <input type=\"text\" class=\"form-control\" id=\"education_level\" placeholder=\"20\" name=\"education_level\" value='"+education_level+"'readonly>\n" +
-                    "                  <label for=\"education_level\">Education Level</label>\n" +
-                    "                </div>\n" +
-                    "                  <div class=\"form-floating mb-3\">\n" +
-                    "                    <input type=\"text\" class=\"form-control\" id=\"job_title\" placeholder=\"20\" name=\"job_title\" value='"+job_title+"'readonly>\n" +
-                    "                  <label for=\"job_title\">Job Title</label>\n" +
-                    "                </div>\n" +
-                    "                  <div class=\"form-floating mb-3\">\n" +
-                    "                    <input type=\"text\" class=\"form-control\" id=\"years_of_experience\" placeholder=\"20\" name=\"years_of_experience\" value='"+years_of_experience+"'readonly>\n" +
-                    "                  <label for=\"years_of_experience\">Years Of Experience</label>\n" +
-                    "                </div>\n" +
-                    "              </form>\n");
-            while ((line = reader.readLine()) != null) {
-                writer.println("<h4> Salary = $" + line + "</h4>");
-//                System.out.println(line);
+                @Override
+                public void onComplete(AsyncEvent event) {
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                    if (answered.compareAndSet(false, true)) {
+                        cancel(task.get());
+                    }
+                    guarded.abort("failed: " + event.getThrowable());
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+            try {
+                task.set(PredictionExecutor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        String salary;
+                        try {
+                            salary = String.valueOf(Predictors.get().predict(Integer.parseInt(age), Integer.parseInt(gender),
+                                    Integer.parseInt(education_level), Integer.parseInt(job_title), Float.parseFloat(years_of_experience)));
+                        } catch (IllegalArgumentException e) {
+                            salary = null;
+                        } catch (IOException e) {
+                            System.out.println("Prediction is failed: " + e.getMessage());
+                            if (answered.compareAndSet(false, true)) {
+                                busy(async, "Prediction is failed, try again later");
+                            }
+                            return;
+                        }
+                        if (answered.compareAndSet(false, true)) {
+                            result(async, admin, age, gender, education_level, job_title, years_of_experience, salary);
+                        }
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                answered.set(true);
+                busy(async, "Prediction service is busy, try again shortly");
             }
-            writer.println("<a href=\"main\" class=\"btn btn-primary\"> Back to Main Menu </a>"+
-                    "</div>\n" +
-                    "            </div>\n" +
-                    "        </main> \n" +
-                    "      </div>\n" +
-                    "        \n" +
-                    "    </div>");
-            writer.println("    <script src=\"https://cdn.jsdelivr.net/npm/bootstrap@5.0.2/dist/js/bootstrap.bundle.min.js\" integrity=\"sha384-MrcW6ZMFYlzcLA8Nl+NtUVF0sA7MsXsP1UyJoMp4YLEuNSfAP+JcXn/tWtIaxVXM\" crossorigin=\"anonymous\"></script>\n");
-            writer.println("</body>\n" +
-                    "        \n" +
-                    "        <!-- Option 1: Bootstrap Bundle with Popper -->\n" +
-                    "        <script src=\"https://cdn.jsdelivr.net/npm/bootstrap@5.0.2/dist/js/bootstrap.bundle.min.js\" integrity=\"sha384-MrcW6ZMFYlzcLA8Nl+NtUVF0sA7MsXsP1UyJoMp4YLEuNSfAP+JcXn/tWtIaxVXM\" crossorigin=\"anonymous\"></script>\n" +
-                    "        <script src=\"https://code.jquery.com/jquery-3.5.1.js\"></script>");
-            writer.println("</html>");
-            } else{
-                LoginPage.unAuthorizedAccess(resp);
+        } else {
+            LoginPage.unAuthorizedAccess(resp);
+        }
+    }
+
+    private static void cancel(Future<?> task) {
+        if (task != null) {
+            task.cancel(true);
+        }
+    }
+
+    private static void result(AsyncContext async, boolean admin, String age, String gender, String education_level,
+                               String job_title, String years_of_experience, String salary) {
+        try {
+            HtmlOutput out = HtmlOutput.of((HttpServletResponse) async.getResponse());
+            Pages.begin(out, admin);
+            Pages.HEADING.write(out, "Results of Prediction");
+            RESULT.write(out, age, gender, education_level, job_title, years_of_experience);
+            if (salary != null) {
+                SALARY.write(out, salary);
+            } else {
+                MISSING_INPUT.write(out);
             }
+            BACK.write(out);
+            Pages.end(out);
+        } catch (IOException e) {
+            System.out.println("Prediction response is failed: " + e.getMessage());
+        } finally {
+            complete(async);
         }
     }
 
+    // After a timeout or error the container may have completed the request already.
+    private static void complete(AsyncContext async) {
+        try {
+            async.complete();
+        } catch (IllegalStateException ignored) {
+        }
+    }
 
+    private static void busy(AsyncContext async, String heading) {
+        try {
+            HttpServletResponse resp = (HttpServletResponse) async.getResponse();
+            resp.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            resp.setHeader("Retry-After", "5");
+            Pages.message(HtmlOutput.of(resp), "Salary Prediction | Busy", heading, "predictData", "Back To Prediction");
+        } catch (IOException e) {
+            System.out.println("Prediction response is failed: " + e.getMessage());
+        } finally {
+            complete(async);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package menu;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import login.LoginPage;
+import predict.BatchScorer;
+import predict.Predictors;
+import utils.CsvReader;
+import utils.JobsCache;
+import utils.JsonArrayReader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Scores many profiles in one request. The body is either a CSV with a header naming age, gender,
+// education_level, job_title and years_of_experience, or (Content-Type: application/json) an array
+// of objects with those fields. Results come back in the same format, one per input row, written
+// out chunk by chunk as they are scored:
+//   CSV:  row,salary          (salary empty for a profile that could not be read)
+//   JSON: [{"row":1,"salary":123.4},{"row":2,"salary":null}]
+@WebServlet(urlPatterns = {"/predictBatch"})
+public class PredictBatch extends HttpServlet {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String[] FIELDS = {"age", "gender", "education_level", "job_title", "years_of_experience"};
+
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        if (!LoginPage.isValid(req)) {
+            resp.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        BatchScorer scorer;
+        try {
+            scorer = new BatchScorer(Predictors.model(), jobTitles());
+        } catch (IOException | SQLException e) {
+            resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage());
+            return;
+        }
+        String contentType = req.getContentType();
+        boolean json = contentType != null && contentType.toLowerCase(Locale.ROOT).contains("json");
+        Reader body = new InputStreamReader(req.getInputStream(), StandardCharsets.UTF_8);
+        JsonArrayReader jsonReader = null;
+        CsvReader csvReader = null;
+        int[] columns = null;
+        try {
+            if (json) {
+                jsonReader = new JsonArrayReader(body);
+                jsonReader.start();
+            } else {
+                csvReader = new CsvReader(body);
+                columns = csvColumns(csvReader);
+            }
+        } catch (IOException e) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        resp.setContentType(json ? "application/json" : "text/csv");
+        resp.setCharacterEncoding("UTF-8");
+        long start = System.nanoTime();
+        long rows;
+        // Not try-with-resources: closing the stream commits the response, and a bad row in the
+        // first chunk should still get a 400.
+        Writer writer = new BufferedWriter(new OutputStreamWriter(resp.getOutputStream(), StandardCharsets.UTF_8), BUFFER_SIZE);
+        try {
+            rows = json ? scoreJson(jsonReader, scorer, writer) : scoreCsv(csvReader, columns, scorer, writer);
+        } catch (IOException e) {
+            if (resp.isCommitted()) {
+                throw e;
+            }
+            resp.reset();
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        writer.close();
+        long millis = Math.max(1, (System.nanoTime() - start) / 1000000);
+        System.out.println("Batch prediction: " + rows + " profiles in " + millis + " ms (" + rows * 1000 / millis + " profiles/s)");
+    }
+
+    public static long scoreCsv(CsvReader csv, BatchScorer scorer, Writer writer) throws IOException {
+        return scoreCsv(csv, csvColumns(csv), scorer, writer);
+    }
+
+    // Reads the header and returns the column of each of FIELDS.
+    public static int[] csvColumns(CsvReader csv) throws IOException {
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new IOException("Empty CSV");
+        }
+        int[] columns = new int[FIELDS.length];
+        for (int f = 0; f < FIELDS.length; f++) {
+            columns[f] = -1;
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT).replace(' ', '_');
+                if (name.equals(FIELDS[f])) {
+                    columns[f] = i;
+                }
+            }
+            if (columns[f] < 0) {
+                throw new IOException("CSV header must contain Age, Gender, Education Level, Job Title and Years of Experience");
+            }
+        }
+        return columns;
+    }
+
+    static long scoreCsv(CsvReader csv, int[] columns, BatchScorer scorer, Writer writer) throws IOException {
+        writer.write("row,salary\n");
+        long row = 0;
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            scorer.add(field(record, columns[0]), field(record, columns[1]), field(record, columns[2]),
+                    field(record, columns[3]), field(record, columns[4]));
+            if (scorer.isFull()) {
+                row = writeCsv(scorer, writer, row);
+            }
+        }
+        return writeCsv(scorer, writer, row);
+    }
+
+    public static long scoreJson(JsonArrayReader json, BatchScorer scorer, Writer writer) throws IOException {
+        writer.write('[');
+        long row = 0;
+        Map<String, String> profile;
+        while ((profile = json.next()) != null) {
+            scorer.add(profile.get(FIELDS[0]), profile.get(FIELDS[1]), profile.get(FIELDS[2]),
+                    profile.get(FIELDS[3]), profile.get(FIELDS[4]));
+            if (scorer.isFull()) {
+                row = writeJson(scorer, writer, row);
+            }
+        }
+        row = writeJson(scorer, writer, row);
+        writer.write("]\n");
+        return row;
+    }
+
+    private static long writeCsv(BatchScorer scorer, Writer writer, long row) throws IOException {
+        scorer.score();
+        StringBuilder line = new StringBuilder(32);
+        for (int i = 0; i < scorer.size(); i++) {
+            line.setLength(0);
+            line.append(++row).append(',');
+            if (scorer.isValid(i)) {
+                line.append(scorer.getSalary(i));
+            }
+            writer.append(line.append('\n'));
+        }
+        scorer.clear();
+        writer.flush();
+        return row;
+    }
+
+    private static long writeJson(BatchScorer scorer, Writer writer, long row) throws IOException {
+        scorer.score();
+        StringBuilder item = new StringBuilder(48);
+        for (int i = 0; i < scorer.size(); i++) {
+            item.setLength(0);
+            item.append(row == 0 ? "{\"row\":" : ",\n{\"row\":").append(++row).append(",\"salary\":");
+            if (scorer.isValid(i)) {
+                item.append(scorer.getSalary(i));
+            } else {
+                item.append("null");
+            }
+            writer.append(item.append('}'));
+        }
+        scorer.clear();
+        writer.flush();
+        return row;
+    }
+
+    private static String field(List<String> record, int column) {
+        return column < record.size() ? record.get(column) : null;
+    }
+
+    private static Map<String, Integer> jobTitles() throws SQLException {
+        JobsCache.Jobs jobs = JobsCache.get();
+        Map<String, Integer> titles = new HashMap<>();
+        for (int i = 0; i < jobs.size(); i++) {
+            titles.put(jobs.getTitle(i), jobs.getId(i));
+        }
+        return titles;
+    }
+}
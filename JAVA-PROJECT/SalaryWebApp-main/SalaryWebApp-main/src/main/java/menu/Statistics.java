@@ -0,0 +1,53 @@
+package menu;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import login.LoginPage;
+import utils.Blocking;
+import utils.SalaryStatistics;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+// Grouped salary statistics as JSON for dashboards:
+// {"version":..,"bandYears":5,"overall":{..},"job_title":[..],"education_level":[..],"experience_band":[..]}
+// where every group is {"key","count","mean","min","p25","median","p75","p90","max"}.
+@WebServlet(urlPatterns = {"/statistics"}, asyncSupported = true)
+public class Statistics extends HttpServlet {
+    // DataVersion starts again at 0 on restart, so the tag also names this process
+    private static final long STARTED = System.currentTimeMillis();
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        Blocking.run(req, resp, this::render);
+    }
+
+    private void render(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        if (!LoginPage.isValid(req)) {
+            resp.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        SalaryStatistics.Snapshot stats;
+        try {
+            stats = SalaryStatistics.get();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        // the data version identifies the content, so an unchanged dashboard reload costs nothing
+        String etag = "\"stats-" + STARTED + "-" + stats.getVersion() + "\"";
+        resp.setHeader("ETag", etag);
+        resp.setHeader("Cache-Control", "private, no-cache");
+        if (etag.equals(req.getHeader("If-None-Match"))) {
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        byte[] json = stats.getJson();
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("UTF-8");
+        resp.setContentLength(json.length);
+        resp.getOutputStream().write(json);
+    }
+}
@@ -1,66 +1,108 @@
 package menu;
 
+import jakarta.servlet.MultipartConfigElement;
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
 import jakarta.servlet.ServletException;
-import jakarta.servlet.annotation.MultipartConfig;
-import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.ServletRegistration;
+import jakarta.servlet.annotation.WebListener;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.Part;
+import login.LoginPage;
+import predict.Predictors;
+import template.HtmlOutput;
+import template.Pages;
+import utils.SalaryCsvImporter;
+import utils.Settings;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 
-@WebServlet(urlPatterns = {"/updateCSV"})
-@MultipartConfig(
-        location = "/",
-        fileSizeThreshold = 1024 * 1024, // 1MB
-        maxFileSize = 1024 * 1024, // 1MB
-        maxRequestSize = 1024 * 1024 // 1MB
-)
 public class UpdateCSV extends HttpServlet {
-    private static final String SAVE_DIRECTORY = "uploads";
-    @Override
-    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        // Get the file part from the request
-        Part filePart = req.getPart("fileToUpdate");
+    private static final long MAX_UPLOAD_BYTES = Settings.getLong("salary.import.maxBytes", 1024L * 1024 * 1024); // 1GB
+    private static final int SPOOL_THRESHOLD = 1024 * 1024; // 1MB, larger uploads are spooled to disk
 
-        // Extract file name from the part
-        String fileName = getFileName(filePart);
-//        System.out.println(fileName);
+    // Registered here rather than with @WebServlet/@MultipartConfig so the multipart limits can come
+    // from salary.import.maxBytes; the container then counts the bytes it actually reads, which
+    // also covers chunked uploads that send no Content-Length.
+    @WebListener
+    public static class Registration implements ServletContextListener {
+        @Override
+        public void contextInitialized(ServletContextEvent sce) {
+            ServletRegistration.Dynamic registration = sce.getServletContext().addServlet("UpdateCSV", UpdateCSV.class);
+            registration.addMapping("/updateCSV");
+            registration.setMultipartConfig(new MultipartConfigElement("", MAX_UPLOAD_BYTES, MAX_UPLOAD_BYTES, SPOOL_THRESHOLD));
+        }
+    }
 
-        // Create the save directory if it doesn't exist
-        File saveDir = new File(SAVE_DIRECTORY);
-        if (!saveDir.exists()) {
-            saveDir.mkdir();
+    // Progress of the running (or last) import, for polling while a large file loads; imports run
+    // one at a time, so this is the upload the caller is waiting for.
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        if (LoginPage.isValid(req)) {
+            resp.setContentType("application/json");
+            resp.setCharacterEncoding("UTF-8");
+            SalaryCsvImporter.Progress progress = SalaryCsvImporter.getLastProgress();
+            resp.getWriter().println(progress == null ? "{}" : progress.toJson());
+        } else {
+            LoginPage.unAuthorizedAccess(resp);
+        }
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        if (!LoginPage.isValid(req)) {
+            LoginPage.unAuthorizedAccess(resp);
+            return;
+        }
+        if (req.getContentLengthLong() > MAX_UPLOAD_BYTES) {
+            resp.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+                    "File is larger than " + MAX_UPLOAD_BYTES + " bytes");
+            return;
         }
 
-        // Get the existing file to be updated
-        File existingFile = new File(saveDir, String.valueOf(fileName));
+        // Get the file part from the request
+        Part filePart;
+        try {
+            filePart = req.getPart("fileToUpdate");
+        } catch (IllegalStateException e) {
+            // the multipart limit was reached while reading the body
+            resp.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+                    "File is larger than " + MAX_UPLOAD_BYTES + " bytes");
+            return;
+        } catch (ServletException e) {
+            // not multipart/form-data
+            filePart = null;
+        }
+        if (filePart == null) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Upload the CSV file as fileToUpdate");
+            return;
+        }
 
-        // If the existing file exists, delete it
-        if (existingFile.exists()) {
-            existingFile.delete();
+        // Parse and load the rows straight from the upload stream
+        SalaryCsvImporter.Progress progress;
+        try (InputStream input = filePart.getInputStream()) {
+            progress = SalaryCsvImporter.importCsv(input, filePart.getSize());
+        } catch (SalaryCsvImporter.AlreadyRunningException e) {
+            resp.setStatus(HttpServletResponse.SC_CONFLICT);
+            Pages.message(HtmlOutput.of(resp), "Salary Prediction", e.getMessage(), "main", "Back to Main Menu");
+            return;
+        } catch (IOException e) {
+            // rows committed before the failure stay; the message says up to which line
+            Predictors.trainingDataChanged();
+            Pages.message(HtmlOutput.of(resp), "Salary Prediction", "Import is failed: " + e.getMessage(), "main", "Back to Main Menu");
+            return;
+        } finally {
+            filePart.delete();
         }
 
-        // Save the new file to the server
-        filePart.write(saveDir + File.separator + fileName);
+        if (progress.getRowsImported() > 0) {
+            Predictors.trainingDataChanged();
+        }
 
         // Redirect or forward to a success page
         resp.sendRedirect("main");
-
-
-
     }
-    private String getFileName(Part part) {
-        String contentDisposition = part.getHeader("content-disposition");
-        String[] tokens = contentDisposition.split(";");
-        for (String token : tokens) {
-            if (token.trim().startsWith("filename")) {
-                return token.substring(token.indexOf("=") + 2, token.length() - 1);
-            }
-        }
-        return "";
-    }
-
 }
@@ -0,0 +1,70 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency histogram with fixed Prometheus-style buckets. Recording is one bucket search and two
+// LongAdder increments, so busy request threads do not contend on a shared counter. Latencies are
+// observed in nanoseconds and exposed in seconds; counts() makes one for plain counts instead.
+public class Histogram {
+    static final double[] BUCKETS = {0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    private final double[] buckets;
+    private final long[] bounds;
+    // observed units per exposed unit
+    private final double scale;
+    // the last slot is +Inf
+    private final LongAdder[] counts;
+    private final LongAdder sum = new LongAdder();
+
+    public Histogram() {
+        this(BUCKETS, 1e9);
+    }
+
+    private Histogram(double[] buckets, double scale) {
+        this.buckets = buckets;
+        this.scale = scale;
+        this.bounds = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            bounds[i] = Math.round(buckets[i] * scale);
+        }
+        this.counts = new LongAdder[buckets.length + 1];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    public static Histogram counts(double... buckets) {
+        return new Histogram(buckets, 1);
+    }
+
+    public void observe(long value) {
+        int i = 0;
+        while (i < bounds.length && value > bounds[i]) {
+            i++;
+        }
+        counts[i].increment();
+        sum.add(value);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : counts) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    // Writes the _bucket, _sum and _count samples; labels is either empty or "name=\"value\","
+    void write(StringBuilder out, String name, String labels) {
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i].sum();
+            out.append(name).append("_bucket{").append(labels).append("le=\"")
+                    .append(i < buckets.length ? Double.toString(buckets[i]) : "+Inf").append("\"} ")
+                    .append(cumulative).append('\n');
+        }
+        String plain = labels.isEmpty() ? "" : "{" + labels.substring(0, labels.length() - 1) + "}";
+        out.append(name).append("_sum").append(plain).append(' ').append(sum.sum() / scale).append('\n');
+        out.append(name).append("_count").append(plain).append(' ').append(cumulative).append('\n');
+    }
+}
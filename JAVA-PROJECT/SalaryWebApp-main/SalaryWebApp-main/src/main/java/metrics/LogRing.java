@@ -0,0 +1,84 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded multi-producer, single-consumer ring of preallocated slots. A producer claims a
+// sequence with one CAS, fills the slot's fields and publishes it with a volatile write, so
+// nothing is allocated and no lock is taken; when the consumer is a full ring behind, offer
+// fails instead of waiting.
+class LogRing {
+    static final class Slot {
+        String sql;
+        long nanos;
+        long rows;
+        boolean slow;
+        // sequence of the entry in this slot, written last by the producer
+        volatile long published = -1;
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // consumed up to here; only the consumer writes it, and only every PUBLISH_EVERY entries so
+    // producers are not invalidated on each read
+    private volatile long head = 0;
+    // producers' possibly stale copy of head, re-read only when the ring looks full
+    private long headCache = 0;
+    // next sequence to read, consumer only
+    private long next = 0;
+
+    private static final int PUBLISH_EVERY = 64;
+
+    LogRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        mask = size - 1;
+    }
+
+    boolean offer(String sql, long nanos, long rows, boolean slow) {
+        long seq;
+        do {
+            seq = tail.get();
+            if (seq - headCache >= slots.length) {
+                headCache = head;
+                if (seq - headCache >= slots.length) {
+                    return false;
+                }
+            }
+        } while (!tail.compareAndSet(seq, seq + 1));
+        Slot slot = slots[(int) seq & mask];
+        slot.sql = sql;
+        slot.nanos = nanos;
+        slot.rows = rows;
+        slot.slow = slow;
+        slot.published = seq;
+        return true;
+    }
+
+    // The next published entry, or null if the ring is empty or its producer is still writing.
+    Slot peek() {
+        Slot slot = slots[(int) next & mask];
+        return slot.published == next ? slot : null;
+    }
+
+    // Done with the slot returned by peek.
+    void advance(Slot slot) {
+        slot.sql = null;
+        next++;
+        if ((next & (PUBLISH_EVERY - 1)) == 0) {
+            head = next;
+        }
+    }
+
+    // Hands every slot read so far back to the producers.
+    void release() {
+        head = next;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+}
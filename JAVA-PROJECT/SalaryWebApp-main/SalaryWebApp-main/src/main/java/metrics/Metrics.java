@@ -0,0 +1,167 @@
+package metrics;
+
+import login.SessionStore;
+import predict.ModelRetrainer;
+import utils.ConnectionPool;
+import utils.DBUtil;
+import utils.DataVersion;
+import utils.Settings;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// In-process registry behind /metrics: request latency per servlet mapping, execution time and
+// row counts per SQL statement, database round trips per page, and PredictWorker.py round trips.
+public class Metrics {
+    // PagedTable builds its SQL from the search and sort, so the number of query series is capped
+    static final int MAX_SERIES = Settings.getInt("salary.metrics.maxSeries", 200);
+    static final String OTHER = "other";
+
+    private static final ConcurrentHashMap<String, RequestStats> requests = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, QueryStats> queries = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Histogram> pageQueries = new ConcurrentHashMap<>();
+    private static final Histogram predictionsOk = new Histogram();
+    private static final Histogram predictionsFailed = new Histogram();
+
+    public static void request(String servlet, int status, long nanos) {
+        RequestStats stats = requests.get(servlet);
+        if (stats == null) {
+            String key = requests.size() < MAX_SERIES ? servlet : OTHER;
+            stats = requests.get(key);
+            if (stats == null) {
+                stats = putIfAbsent(requests, key, new RequestStats());
+            }
+        }
+        stats.latency.observe(nanos);
+        stats.statuses[Math.max(0, Math.min(5, status / 100))].increment();
+    }
+
+    public static void query(String sql, long nanos, long rows) {
+        QueryStats stats = queries.get(sql);
+        if (stats == null) {
+            String key = queries.size() < MAX_SERIES ? sql : OTHER;
+            stats = queries.get(key);
+            if (stats == null) {
+                stats = putIfAbsent(queries, key, new QueryStats(key));
+            }
+        }
+        stats.latency.observe(nanos);
+        stats.rows.add(rows);
+    }
+
+    // Pages with a fixed query budget report it here, so a query-per-row regression shows as a
+    // shift into the higher buckets.
+    public static void pageQueries(String page, int count) {
+        Histogram histogram = pageQueries.get(page);
+        if (histogram == null) {
+            histogram = putIfAbsent(pageQueries, page, Histogram.counts(1, 2, 3, 5, 10, 25, 100));
+        }
+        histogram.observe(count);
+    }
+
+    public static void prediction(long nanos, boolean ok) {
+        (ok ? predictionsOk : predictionsFailed).observe(nanos);
+    }
+
+    private static <T> T putIfAbsent(ConcurrentHashMap<String, T> map, String key, T value) {
+        T existing = map.putIfAbsent(key, value);
+        return existing != null ? existing : value;
+    }
+
+    // Prometheus text exposition format 0.0.4.
+    public static String prometheus() {
+        StringBuilder out = new StringBuilder(16384);
+
+        header(out, "salary_http_request_duration_seconds", "histogram", "Time spent in the filter chain per servlet mapping.");
+        for (Map.Entry<String, RequestStats> entry : new TreeMap<>(requests).entrySet()) {
+            entry.getValue().latency.write(out, "salary_http_request_duration_seconds", "servlet=\"" + escape(entry.getKey()) + "\",");
+        }
+        header(out, "salary_http_responses_total", "counter", "Responses per servlet mapping and status class.");
+        for (Map.Entry<String, RequestStats> entry : new TreeMap<>(requests).entrySet()) {
+            LongAdder[] statuses = entry.getValue().statuses;
+            for (int i = 1; i < statuses.length; i++) {
+                long count = statuses[i].sum();
+                if (count > 0) {
+                    out.append("salary_http_responses_total{servlet=\"").append(escape(entry.getKey()))
+                            .append("\",code=\"").append(i).append("xx\"} ").append(count).append('\n');
+                }
+            }
+        }
+
+        header(out, "salary_db_query_duration_seconds", "histogram", "Execution time per SQL statement, including reading a streamed result.");
+        TreeMap<String, QueryStats> sortedQueries = new TreeMap<>();
+        for (QueryStats stats : queries.values()) {
+            sortedQueries.put(stats.label, stats);
+        }
+        for (QueryStats stats : sortedQueries.values()) {
+            stats.latency.write(out, "salary_db_query_duration_seconds", "query=\"" + escape(stats.label) + "\",");
+        }
+        header(out, "salary_db_query_rows_total", "counter", "Rows read or written per SQL statement.");
+        for (QueryStats stats : sortedQueries.values()) {
+            out.append("salary_db_query_rows_total{query=\"").append(escape(stats.label)).append("\"} ")
+                    .append(stats.rows.sum()).append('\n');
+        }
+
+        header(out, "salary_page_queries", "histogram", "Database round trips per page render.");
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(pageQueries).entrySet()) {
+            entry.getValue().write(out, "salary_page_queries", "page=\"" + escape(entry.getKey()) + "\",");
+        }
+
+        header(out, "salary_predict_subprocess_duration_seconds", "histogram", "PredictWorker.py round trips by outcome.");
+        predictionsOk.write(out, "salary_predict_subprocess_duration_seconds", "outcome=\"ok\",");
+        predictionsFailed.write(out, "salary_predict_subprocess_duration_seconds", "outcome=\"error\",");
+
+        gauge(out, "salary_db_queries_total", "counter", "Statements run since startup.", DBUtil.getQueryCount());
+        gauge(out, "salary_db_connection_acquires_total", "counter", "Connections borrowed from the pool.", ConnectionPool.getAcquireCount());
+        gauge(out, "salary_db_connection_timeouts_total", "counter", "Connection borrows that timed out.", ConnectionPool.getAcquireTimeouts());
+        gauge(out, "salary_data_version", "gauge", "Writes to the salary data since startup.", DataVersion.get());
+        gauge(out, "salary_sessions", "gauge", "Logged-in sessions.", SessionStore.size());
+        gauge(out, "salary_query_log_lines_total", "counter", "Query log lines written.", QueryLog.getWritten());
+        gauge(out, "salary_query_log_dropped_total", "counter", "Query log lines dropped because the log ring was full.", QueryLog.getDropped());
+        gauge(out, "salary_query_log_rate_limited_total", "counter", "Query log lines skipped by salary.querylog.maxPerSecond.", QueryLog.getRateLimited());
+        gauge(out, "salary_model_rows", "gauge", "Rows in the current in-JVM salary model.", ModelRetrainer.getRows());
+        gauge(out, "salary_model_full_retrains_total", "counter", "Salary model fits from the whole table.", ModelRetrainer.getFullRetrains());
+        gauge(out, "salary_model_incremental_updates_total", "counter", "Salary model refits from appended rows only.", ModelRetrainer.getIncrementalUpdates());
+        gauge(out, "salary_model_retrain_failures_total", "counter", "Background salary model retrains that failed.", ModelRetrainer.getFailures());
+        return out.toString();
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void gauge(StringBuilder out, String name, String type, String help, long value) {
+        header(out, name, type, help);
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static class RequestStats {
+        final Histogram latency = new Histogram();
+        // index is status / 100
+        final LongAdder[] statuses = new LongAdder[6];
+
+        RequestStats() {
+            for (int i = 0; i < statuses.length; i++) {
+                statuses[i] = new LongAdder();
+            }
+        }
+    }
+
+    private static class QueryStats {
+        final String label;
+        final Histogram latency = new Histogram();
+        final LongAdder rows = new LongAdder();
+
+        QueryStats(String sql) {
+            // one line per statement, whatever the indentation of the Java string it came from
+            this.label = sql.trim().replaceAll("\\s+", " ");
+        }
+    }
+}
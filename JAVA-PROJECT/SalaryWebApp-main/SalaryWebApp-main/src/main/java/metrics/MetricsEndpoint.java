@@ -0,0 +1,53 @@
+package metrics;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import login.LoginPage;
+import utils.Settings;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+// Prometheus scrape target, open to an admin session. Without salary.metrics.token it is also open
+// to scrapers on the same host; with one (needed behind a local reverse proxy) scrapers send
+// "Authorization: Bearer <token>" instead.
+@WebServlet(urlPatterns = {"/metrics"})
+public class MetricsEndpoint extends HttpServlet {
+    static final String TOKEN = Settings.getString("salary.metrics.token", "");
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        if (!allowed(req)) {
+            resp.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        byte[] body = Metrics.prometheus().getBytes(StandardCharsets.UTF_8);
+        resp.setContentType("text/plain; version=0.0.4");
+        resp.setCharacterEncoding("UTF-8");
+        resp.setHeader("Cache-Control", "no-store");
+        resp.setContentLength(body.length);
+        resp.getOutputStream().write(body);
+    }
+
+    private static boolean allowed(HttpServletRequest req) {
+        if (LoginPage.isAdmin(req)) {
+            return true;
+        }
+        if (!TOKEN.isEmpty()) {
+            String authorization = req.getHeader("Authorization");
+            return authorization != null && authorization.startsWith("Bearer ")
+                    && MessageDigest.isEqual(TOKEN.getBytes(StandardCharsets.UTF_8),
+                    authorization.substring(7).trim().getBytes(StandardCharsets.UTF_8));
+        }
+        try {
+            return InetAddress.getByName(req.getRemoteAddr()).isLoopbackAddress();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
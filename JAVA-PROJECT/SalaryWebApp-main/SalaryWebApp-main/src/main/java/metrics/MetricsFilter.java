@@ -0,0 +1,81 @@
+package metrics;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpServletMapping;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+// Records the latency and status of every request under its servlet mapping ("/main", "*.jsp").
+// Async requests such as /predictData are recorded when the async cycle completes.
+@WebFilter(urlPatterns = {"/*"}, asyncSupported = true)
+public class MetricsFilter implements Filter {
+    @Override
+    public void init(FilterConfig filterConfig) {
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        final long start = System.nanoTime();
+        final HttpServletRequest req = (HttpServletRequest) request;
+        final HttpServletResponse resp = (HttpServletResponse) response;
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (req.isAsyncStarted()) {
+                async = true;
+                req.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(req, resp.getStatus(), start);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            }
+        } catch (IOException | ServletException | RuntimeException e) {
+            record(req, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, start);
+            throw e;
+        }
+        if (!async) {
+            record(req, resp.getStatus(), start);
+        }
+    }
+
+    private static void record(HttpServletRequest req, int status, long start) {
+        Metrics.request(servlet(req), status, System.nanoTime() - start);
+    }
+
+    // The mapping pattern rather than the path, so path parameters cannot grow the series count.
+    private static String servlet(HttpServletRequest req) {
+        HttpServletMapping mapping = req.getHttpServletMapping();
+        if (mapping == null || mapping.getPattern() == null) {
+            return Metrics.OTHER;
+        }
+        return mapping.getPattern().isEmpty() ? "/" : mapping.getPattern();
+    }
+
+    @Override
+    public void destroy() {
+        QueryLog.shutdown();
+    }
+}
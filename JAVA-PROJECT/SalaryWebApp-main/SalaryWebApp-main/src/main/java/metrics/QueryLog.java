@@ -0,0 +1,177 @@
+package metrics;
+
+import utils.Settings;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Statement log that keeps stdout off the request thread. One statement in SAMPLE_EVERY,
+// plus every statement slower than SLOW_MS, is logged, at most MAX_PER_SECOND lines a second.
+// The request thread only copies the SQL reference and two numbers into a LogRing slot; a
+// background thread formats the lines and writes them in batches every FLUSH_MS. Statements that
+// are not sampled touch no shared state at all. When the ring is full the line is dropped and
+// counted rather than blocking the request.
+public class QueryLog {
+    static final int SAMPLE_EVERY = Settings.getInt("salary.querylog.sampleEvery", 100);
+    static final long SLOW_NANOS = Settings.getLong("salary.querylog.slowMs", 500) * 1000000;
+    static final int MAX_PER_SECOND = Settings.getInt("salary.querylog.maxPerSecond", 1000);
+    static final int RING_SIZE = Settings.getInt("salary.querylog.ringSize", 4096);
+    static final long FLUSH_MS = Settings.getLong("salary.querylog.flushMs", 200);
+    // empty for stdout
+    static final String FILE = Settings.getString("salary.querylog.file", "");
+
+    private static final int BATCH_BYTES = 64 * 1024;
+
+    private static final LogRing ring = new LogRing(RING_SIZE);
+    private static final LongAdder dropped = new LongAdder();
+    private static final LongAdder limited = new LongAdder();
+    private static final LongAdder written = new LongAdder();
+    private static volatile long windowStart = System.nanoTime();
+    private static final AtomicInteger windowCount = new AtomicInteger();
+    private static Thread writer = null;
+    private static volatile boolean running = false;
+
+    public static void sample(String sql, long nanos, long rows) {
+        boolean slow = nanos >= SLOW_NANOS;
+        if (!slow && (SAMPLE_EVERY <= 0 || ThreadLocalRandom.current().nextInt(SAMPLE_EVERY) != 0)) {
+            return;
+        }
+        if (!withinRate()) {
+            limited.increment();
+            return;
+        }
+        if (!ring.offer(sql, nanos, rows, slow)) {
+            dropped.increment();
+            return;
+        }
+        if (!running) {
+            start();
+        }
+    }
+
+    // One-second windows; a reset racing with an increment can let a few extra lines through.
+    private static boolean withinRate() {
+        if (MAX_PER_SECOND <= 0) {
+            return true;
+        }
+        long now = System.nanoTime();
+        if (now - windowStart >= TimeUnit.SECONDS.toNanos(1)) {
+            windowStart = now;
+            windowCount.set(0);
+        }
+        return windowCount.incrementAndGet() <= MAX_PER_SECOND;
+    }
+
+    private static synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                OutputStream out = open();
+                StringBuilder batch = new StringBuilder(BATCH_BYTES);
+                while (running) {
+                    if (drain(batch, out) == 0) {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(FLUSH_MS));
+                    }
+                }
+                drain(batch, out);
+                if (out != System.out) {
+                    try {
+                        out.close();
+                    } catch (IOException ignored) {
+                    }
+                }
+            }
+        }, "query-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private static OutputStream open() {
+        if (!FILE.isEmpty()) {
+            try {
+                return new FileOutputStream(FILE, true);
+            } catch (IOException e) {
+                System.out.println("Query log file cannot be opened, using stdout: " + e.getMessage());
+            }
+        }
+        return System.out;
+    }
+
+    // Formats everything published so far and writes it in chunks of about BATCH_BYTES, so the
+    // stream lock is taken once per batch instead of once per line.
+    private static int drain(StringBuilder batch, OutputStream out) {
+        int lines = 0;
+        LogRing.Slot slot;
+        while ((slot = ring.peek()) != null) {
+            append(batch, slot);
+            ring.advance(slot);
+            lines++;
+            if (batch.length() >= BATCH_BYTES) {
+                write(batch, out);
+            }
+        }
+        ring.release();
+        if (batch.length() > 0) {
+            write(batch, out);
+        }
+        written.add(lines);
+        return lines;
+    }
+
+    private static void append(StringBuilder batch, LogRing.Slot slot) {
+        long micros = slot.nanos / 1000;
+        long fraction = micros % 1000;
+        batch.append(slot.slow ? "Slow query " : "Query ").append(micros / 1000).append('.')
+                .append(fraction < 100 ? (fraction < 10 ? "00" : "0") : "").append(fraction)
+                .append(" ms, ").append(slot.rows).append(" rows: ").append(slot.sql).append('\n');
+    }
+
+    private static void write(StringBuilder batch, OutputStream out) {
+        byte[] bytes = batch.toString().getBytes(StandardCharsets.UTF_8);
+        batch.setLength(0);
+        try {
+            out.write(bytes);
+            out.flush();
+        } catch (IOException e) {
+            dropped.increment();
+        }
+    }
+
+    // Writes what is still in the ring and stops the writer. The lock is held until the writer has
+    // finished, so a statement logged meanwhile cannot start a second consumer on the ring.
+    public static synchronized void shutdown() {
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+        }
+    }
+
+    public static long getDropped() {
+        return dropped.sum();
+    }
+
+    public static long getRateLimited() {
+        return limited.sum();
+    }
+
+    public static long getWritten() {
+        return written.sum();
+    }
+}
@@ -0,0 +1,34 @@
+package metrics;
+
+// Times one statement from when it is prepared until it is closed, so for a streamed cursor the
+// time includes reading (and rendering) every row. Used in try-with-resources ahead of the
+// statement; row() or rows(n) records what was read or written.
+public class QueryTimer implements AutoCloseable {
+    private final String sql;
+    private final long start;
+    private long rows;
+
+    private QueryTimer(String sql) {
+        this.sql = sql;
+        this.start = System.nanoTime();
+    }
+
+    public static QueryTimer start(String sql) {
+        return new QueryTimer(sql);
+    }
+
+    public void row() {
+        rows++;
+    }
+
+    public void rows(long count) {
+        rows += count;
+    }
+
+    @Override
+    public void close() {
+        long nanos = System.nanoTime() - start;
+        Metrics.query(sql, nanos, rows);
+        QueryLog.sample(sql, nanos, rows);
+    }
+}
@@ -0,0 +1,85 @@
+package predict;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Collects profiles into fixed-size column arrays and scores a whole chunk with one
+// SalaryModel pass. Fields are accepted as the /predictData codes (gender 0/1, education 0/1/2,
+// job id) or as the labels used in salary_view and the CSV export (Female, Master's, job title).
+public class BatchScorer {
+    public static final int CHUNK_SIZE = 4096;
+
+    private final SalaryModel model;
+    private final Map<String, Integer> jobIdsByTitle;
+    private final int[] ages = new int[CHUNK_SIZE];
+    private final int[] genders = new int[CHUNK_SIZE];
+    private final int[] educationLevels = new int[CHUNK_SIZE];
+    private final int[] jobIds = new int[CHUNK_SIZE];
+    private final float[] yearsOfExperience = new float[CHUNK_SIZE];
+    private final boolean[] valid = new boolean[CHUNK_SIZE];
+    private final double[] salaries = new double[CHUNK_SIZE];
+    private int size = 0;
+
+    // jobTitles maps titles to job ids for profiles that name the job instead of giving its id
+    public BatchScorer(SalaryModel model, Map<String, Integer> jobTitles) {
+        this.model = model;
+        this.jobIdsByTitle = new HashMap<>(jobTitles);
+    }
+
+    // Adds one profile; a profile that cannot be parsed takes its slot but is not scored.
+    public void add(String age, String gender, String educationLevel, String job, String experience) {
+        int i = size++;
+        try {
+            ages[i] = Integer.parseInt(age.trim());
+            genders[i] = code(gender, SalaryModelTrainer.encodeGender(gender.trim()));
+            educationLevels[i] = code(educationLevel, SalaryModelTrainer.encodeEducationLevel(educationLevel.trim()));
+            jobIds[i] = jobId(job.trim());
+            yearsOfExperience[i] = Float.parseFloat(experience.trim());
+            valid[i] = (genders[i] == 0 || genders[i] == 1) && educationLevels[i] >= 0 && educationLevels[i] <= 2;
+        } catch (NumberFormatException | NullPointerException e) {
+            valid[i] = false;
+        }
+        if (!valid[i]) {
+            // scored like any other row, then reported as invalid
+            ages[i] = 0;
+            genders[i] = 0;
+            educationLevels[i] = 0;
+            jobIds[i] = 0;
+            yearsOfExperience[i] = 0;
+        }
+    }
+
+    public boolean isFull() {
+        return size == CHUNK_SIZE;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void score() {
+        model.predict(ages, genders, educationLevels, jobIds, yearsOfExperience, size, salaries);
+    }
+
+    public boolean isValid(int i) {
+        return valid[i];
+    }
+
+    public double getSalary(int i) {
+        return salaries[i];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    // a label if it was recognised, otherwise the value must be the numeric code itself
+    private static int code(String value, int fromLabel) {
+        return fromLabel >= 0 ? fromLabel : Integer.parseInt(value.trim());
+    }
+
+    private int jobId(String job) {
+        Integer id = jobIdsByTitle.get(job);
+        return id != null ? id : Integer.parseInt(job);
+    }
+}
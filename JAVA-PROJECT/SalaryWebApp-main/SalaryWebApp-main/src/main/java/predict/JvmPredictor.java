@@ -0,0 +1,15 @@
+package predict;
+
+import java.io.IOException;
+
+// Scores with the in-JVM SalaryModel that ModelRetrainer keeps current.
+public class JvmPredictor implements SalaryPredictor {
+    @Override
+    public double predict(int age, int gender, int educationLevel, int jobId, float yearsOfExperience) throws IOException {
+        return getModel().predict(age, gender, educationLevel, jobId, yearsOfExperience);
+    }
+
+    public SalaryModel getModel() throws IOException {
+        return ModelRetrainer.current();
+    }
+}
@@ -0,0 +1,231 @@
+package predict;
+
+import utils.DBUtil;
+import utils.DataVersion;
+import utils.SalarySnapshot;
+import utils.Settings;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps the in-JVM SalaryModel current as salary_datas changes. Predictions read the model from a
+// volatile field and never train: after the first fit (at startup, see PredictionListener) every
+// retrain runs on one background thread and the result is swapped in with a single write.
+//
+// The thread polls a fingerprint of salary_datas (row count, highest id, rows above the last id it
+// read) every POLL_SECONDS, and DEBOUNCE_MS after a write through this application. When the only
+// change is new rows, they are streamed by id and added to the running NormalEquations. A delete,
+// or an update counted by DataVersion.getRewrites(), rebuilds the sums from scratch (from a fresh
+// SalarySnapshot when that is on), even when rows were appended in the same window. Edits made
+// outside this application only show in the fingerprint when rows disappear; the full rebuild
+// every FULL_RETRAIN_MINUTES picks up the rest.
+public class ModelRetrainer {
+    static final boolean ENABLED = Settings.getBoolean("salary.model.retrain", true);
+    static final long POLL_SECONDS = Settings.getLong("salary.model.pollSeconds", 30);
+    static final long DEBOUNCE_MS = Settings.getLong("salary.model.debounceMs", 1000);
+    static final long FULL_RETRAIN_MINUTES = Settings.getLong("salary.model.fullRetrainMinutes", 60);
+
+    static final String FINGERPRINT = "select count(*), coalesce(max(id), 0), "
+            + "coalesce(sum(case when id > ? then 1 else 0 end), 0) from salary_datas";
+
+    private static volatile SalaryModel model = null;
+
+    // Guarded by the class lock; only the first fit and the retrain thread take it.
+    private static NormalEquations equations;
+    private static long lastId;
+    private static long lastCount;
+    private static long lastRewrites;
+    private static long lastFullRetrain;
+    private static volatile ScheduledExecutorService scheduler;
+
+    private static final AtomicBoolean pending = new AtomicBoolean();
+    private static final AtomicLong incrementalUpdates = new AtomicLong();
+    private static final AtomicLong fullRetrains = new AtomicLong();
+    private static final AtomicLong failures = new AtomicLong();
+
+    // Without a model yet, callers only train it themselves when nothing was started to do it
+    // (benchmarks, or salary.model.retrain=false); otherwise they fail until the first fit lands.
+    static SalaryModel current() throws IOException {
+        SalaryModel current = model;
+        if (current != null) {
+            return current;
+        }
+        if (scheduler != null) {
+            throw new IOException("Salary model is not trained yet");
+        }
+        return firstModel();
+    }
+
+    // Fits the first model on the calling thread and starts the retrain thread, which keeps trying
+    // if this fit failed.
+    static void warmUp() throws IOException {
+        try {
+            firstModel();
+        } finally {
+            start();
+        }
+    }
+
+    private static synchronized SalaryModel firstModel() throws IOException {
+        if (model == null) {
+            try {
+                rebuild();
+            } catch (SQLException e) {
+                throw new IOException("Salary model training is failed", e);
+            }
+            start();
+        }
+        return model;
+    }
+
+    private static synchronized void start() {
+        if (!ENABLED || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "model-retrain");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(ModelRetrainer::poll, POLL_SECONDS, POLL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // Called after a write through this application; a burst of writes (a CSV import, say) is
+    // folded into one poll.
+    static void changed() {
+        ScheduledExecutorService current = scheduler;
+        if (current != null && pending.compareAndSet(false, true)) {
+            try {
+                current.schedule(ModelRetrainer::poll, DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                pending.set(false);
+            }
+        }
+    }
+
+    private static synchronized void poll() {
+        pending.set(false);
+        try {
+            long rewrites = DataVersion.getRewrites();
+            long[] fingerprint = fingerprint(lastId);
+            long count = fingerprint[0];
+            long maxId = fingerprint[1];
+            long appended = fingerprint[2];
+            boolean fullDue = FULL_RETRAIN_MINUTES > 0
+                    && System.currentTimeMillis() - lastFullRetrain >= TimeUnit.MINUTES.toMillis(FULL_RETRAIN_MINUTES);
+            if (equations == null || fullDue || rewrites != lastRewrites || count - appended != lastCount) {
+                rebuild();
+            } else if (appended > 0) {
+                append(maxId, count);
+            }
+        } catch (SQLException | RuntimeException e) {
+            failures.incrementAndGet();
+            System.out.println("Salary model retrain is failed: " + e.getMessage());
+        }
+    }
+
+    private static void rebuild() throws SQLException {
+        long start = System.nanoTime();
+        long rewrites = DataVersion.getRewrites();
+        long[] fingerprint = fingerprint(0);
+        NormalEquations fresh = fromSnapshot(fingerprint[1]);
+        if (fresh == null) {
+            fresh = new NormalEquations();
+            SalaryModelTrainer.addRows(fresh, 0, fingerprint[1]);
+        }
+        equations = fresh;
+        lastId = fingerprint[1];
+        lastCount = fingerprint[0];
+        lastRewrites = rewrites;
+        lastFullRetrain = System.currentTimeMillis();
+        fullRetrains.incrementAndGet();
+        swap(fresh.solve(), "trained", start);
+    }
+
+    // A full rebuild rewrites the salary_view snapshot and fits from that, which leaves a current
+    // snapshot behind for SalaryStatistics; null if the snapshot is off or could not be written.
+    private static NormalEquations fromSnapshot(long upToId) throws SQLException {
+        if (!SalarySnapshot.ENABLED) {
+            return null;
+        }
+        try {
+            NormalEquations fresh = new NormalEquations();
+            SalaryModelTrainer.addRows(fresh, SalarySnapshot.refresh(), upToId);
+            return fresh;
+        } catch (IOException e) {
+            System.out.println("Salary snapshot is not written, training from the database: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Rewrites that land while the rows are read are left for the next poll, which rebuilds.
+    private static void append(long maxId, long count) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            SalaryModelTrainer.addRows(equations, lastId, maxId);
+        } catch (SQLException e) {
+            // some of the rows may already be in the sums; start over on the next poll
+            equations = null;
+            throw e;
+        }
+        lastId = maxId;
+        lastCount = count;
+        incrementalUpdates.incrementAndGet();
+        swap(equations.solve(), "updated", start);
+    }
+
+    private static void swap(SalaryModel trained, String how, long start) {
+        boolean first = model == null;
+        model = trained;
+        if (!first) {
+            Predictors.getCache().invalidate();
+        }
+        System.out.println("Salary model is " + how + " (" + trained.getRows() + " rows, " + trained.getFeatures()
+                + " features, " + (System.nanoTime() - start) / 1000000 + " ms)");
+    }
+
+    private static long[] fingerprint(long afterId) throws SQLException {
+        try (ResultSet rs = DBUtil.executeQuery(FINGERPRINT, afterId)) {
+            rs.next();
+            return new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)};
+        }
+    }
+
+    public static void shutdown() {
+        ScheduledExecutorService current = scheduler;
+        if (current != null) {
+            current.shutdownNow();
+        }
+    }
+
+    public static long getRows() {
+        SalaryModel current = model;
+        return current != null ? current.getRows() : 0;
+    }
+
+    public static long getIncrementalUpdates() {
+        return incrementalUpdates.get();
+    }
+
+    public static long getFullRetrains() {
+        return fullRetrains.get();
+    }
+
+    public static long getFailures() {
+        return failures.get();
+    }
+
+    public static String stats() {
+        return "rows=" + getRows()
+                + ", fullRetrains=" + fullRetrains.get()
+                + ", incrementalUpdates=" + incrementalUpdates.get()
+                + ", failures=" + failures.get();
+    }
+}
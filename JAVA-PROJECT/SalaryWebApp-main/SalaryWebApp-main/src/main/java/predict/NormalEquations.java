@@ -0,0 +1,97 @@
+package predict;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// X'X and X'y of the SalaryModel design matrix over every row added so far. Each row is the six
+// dense columns plus a single job column, so adding one is O(features), and solving never needs
+// the rows again: rows appended later can be added to the same sums and solved without rereading
+// the rest. Job columns are handed out in the order the jobs first appear; the matrix grows when
+// a new one does. Not thread-safe.
+class NormalEquations {
+    private final Map<Integer, Integer> jobColumns = new HashMap<>();
+    private final double[] x = new double[SalaryModel.JOB_OFFSET];
+    private int features = SalaryModel.JOB_OFFSET;
+    // row length of xtx, at least features
+    private int stride = SalaryModel.JOB_OFFSET + 32;
+    private double[] xtx = new double[stride * stride];
+    private double[] xty = new double[stride];
+    private int rows;
+
+    void add(int age, int gender, int educationLevel, int jobId, float yearsOfExperience, double salary) {
+        int job = jobColumn(jobId);
+        double[] x = this.x;
+        x[SalaryModel.INTERCEPT] = 1;
+        x[SalaryModel.AGE] = age;
+        x[SalaryModel.FEMALE] = gender == 1 ? 1 : 0;
+        x[SalaryModel.MASTERS] = educationLevel == 1 ? 1 : 0;
+        x[SalaryModel.PHD] = educationLevel == 2 ? 1 : 0;
+        x[SalaryModel.EXPERIENCE] = yearsOfExperience;
+        int n = stride;
+        for (int a = 0; a < SalaryModel.JOB_OFFSET; a++) {
+            double xa = x[a];
+            if (xa == 0) {
+                continue;
+            }
+            xty[a] += xa * salary;
+            int row = a * n;
+            for (int b = 0; b < SalaryModel.JOB_OFFSET; b++) {
+                xtx[row + b] += xa * x[b];
+            }
+            xtx[row + job] += xa;
+            xtx[job * n + a] += xa;
+        }
+        xty[job] += salary;
+        xtx[job * n + job] += 1;
+        rows++;
+    }
+
+    SalaryModel solve() {
+        int n = features;
+        double[] square = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(xtx, i * stride, square, i * n, n);
+        }
+        double[] coefficients = SalaryModelTrainer.solve(square, xty, n);
+
+        int[] jobIds = new int[jobColumns.size()];
+        int j = 0;
+        for (Integer jobId : jobColumns.keySet()) {
+            jobIds[j++] = jobId;
+        }
+        Arrays.sort(jobIds);
+        int[] columns = new int[jobIds.length];
+        for (int i = 0; i < jobIds.length; i++) {
+            columns[i] = jobColumns.get(jobIds[i]);
+        }
+        return new SalaryModel(coefficients, jobIds, columns, rows);
+    }
+
+    int getRows() {
+        return rows;
+    }
+
+    private int jobColumn(int jobId) {
+        Integer column = jobColumns.get(jobId);
+        if (column == null) {
+            if (features == stride) {
+                grow();
+            }
+            column = features++;
+            jobColumns.put(jobId, column);
+        }
+        return column;
+    }
+
+    private void grow() {
+        int wider = stride * 2;
+        double[] copy = new double[wider * wider];
+        for (int i = 0; i < features; i++) {
+            System.arraycopy(xtx, i * stride, copy, i * wider, features);
+        }
+        xtx = copy;
+        xty = Arrays.copyOf(xty, wider);
+        stride = wider;
+    }
+}
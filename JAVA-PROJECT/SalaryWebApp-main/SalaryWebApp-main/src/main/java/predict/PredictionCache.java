@@ -0,0 +1,113 @@
+package predict;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded LRU of recent predictions with a time-to-live, in front of a slower SalaryPredictor.
+public class PredictionCache implements SalaryPredictor {
+    private final SalaryPredictor backend;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<Long, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private long generation = 0;
+
+    public PredictionCache(SalaryPredictor backend, final int maxEntries, long ttlMillis) {
+        this.backend = backend;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public double predict(int age, int gender, int educationLevel, int jobId, float yearsOfExperience) throws IOException {
+        long key = key(age, gender, educationLevel, jobId, yearsOfExperience);
+        if (key < 0 || maxEntries <= 0) {
+            misses.incrementAndGet();
+            return backend.predict(age, gender, educationLevel, jobId, yearsOfExperience);
+        }
+        long now = System.currentTimeMillis();
+        long startGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt > now) {
+                    hits.incrementAndGet();
+                    return entry.salary;
+                }
+                entries.remove(key);
+                evictions.incrementAndGet();
+            }
+            startGeneration = generation;
+        }
+        misses.incrementAndGet();
+        double salary = backend.predict(age, gender, educationLevel, jobId, yearsOfExperience);
+        synchronized (this) {
+            // an invalidation while the model was running means this answer may be stale
+            if (generation == startGeneration) {
+                entries.put(key, new Entry(salary, now + ttlMillis));
+            }
+        }
+        return salary;
+    }
+
+    // Packs the normalized inputs (experience rounded to a tenth of a year) into one long,
+    // or returns -1 when a value is outside the range the key can hold.
+    static long key(int age, int gender, int educationLevel, int jobId, float yearsOfExperience) {
+        long tenths = Math.round(yearsOfExperience * 10.0);
+        if (age < 0 || age > 0xFF || gender < 0 || gender > 1 || educationLevel < 0 || educationLevel > 3
+                || jobId < 0 || jobId > 0xFFFFFF || tenths < 0 || tenths > 0xFFFF) {
+            return -1;
+        }
+        return (long) age << 43 | (long) gender << 42 | (long) educationLevel << 40 | (long) jobId << 16 | tenths;
+    }
+
+    public synchronized void invalidate() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public String stats() {
+        return "size=" + size() + ", maxEntries=" + maxEntries + ", hits=" + getHits()
+                + ", misses=" + getMisses() + ", evictions=" + getEvictions();
+    }
+
+    private static class Entry {
+        final double salary;
+        final long expiresAt;
+
+        Entry(double salary, long expiresAt) {
+            this.salary = salary;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package predict;
+
+import utils.Settings;
+import utils.VirtualThreads;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs /predictData work off the container threads, so a burst of slow predictions waits here (or
+// is turned away) instead of holding Tomcat's request threads. With virtual threads every
+// prediction gets its own thread, up to MAX_CONCURRENT at once; the PythonWorkerPool permits
+// still bound how many reach the subprocesses. Without them it is a fixed number of platform
+// threads behind a bounded queue.
+public class PredictionExecutor {
+    static final int THREADS = Settings.getInt("salary.predict.threads", 8);
+    static final int QUEUE_SIZE = Settings.getInt("salary.predict.queueSize", 64);
+    static final int MAX_CONCURRENT = Settings.getInt("salary.predict.maxConcurrent", 1000);
+    public static final long TIMEOUT_MS = Settings.getLong("salary.predict.timeoutMs", 15000);
+
+    private static final ExecutorService virtualExecutor = VirtualThreads.newPerTaskExecutor("predict-");
+    private static final Semaphore permits = new Semaphore(MAX_CONCURRENT);
+    private static final ThreadPoolExecutor executor = virtualExecutor != null ? null : new ThreadPoolExecutor(THREADS, THREADS,
+            60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(QUEUE_SIZE), platformThreads());
+
+    private static final AtomicLong submitted = new AtomicLong();
+    private static final AtomicLong rejected = new AtomicLong();
+    private static final AtomicLong timedOut = new AtomicLong();
+
+    static {
+        if (executor != null) {
+            executor.allowCoreThreadTimeOut(true);
+        }
+    }
+
+    // Throws RejectedExecutionException when MAX_CONCURRENT predictions are running, or when every
+    // platform thread is busy and the queue is full.
+    public static Future<?> submit(final Runnable task) {
+        try {
+            Future<?> future = executor != null ? executor.submit(task) : submitVirtual(task);
+            submitted.incrementAndGet();
+            return future;
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw e;
+        }
+    }
+
+    private static Future<?> submitVirtual(final Runnable task) {
+        if (!permits.tryAcquire()) {
+            throw new RejectedExecutionException("More than " + MAX_CONCURRENT + " predictions running");
+        }
+        try {
+            return virtualExecutor.submit(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public static void timedOut() {
+        timedOut.incrementAndGet();
+    }
+
+    public static void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        } else {
+            virtualExecutor.shutdownNow();
+        }
+    }
+
+    public static String stats() {
+        String threads = executor != null
+                ? "threads=" + THREADS + ", active=" + executor.getActiveCount() + ", queued=" + executor.getQueue().size()
+                : "virtual, maxConcurrent=" + MAX_CONCURRENT + ", active=" + (MAX_CONCURRENT - permits.availablePermits());
+        return threads
+                + ", submitted=" + submitted.get()
+                + ", rejected=" + rejected.get()
+                + ", timedOut=" + timedOut.get();
+    }
+
+    private static ThreadFactory platformThreads() {
+        final AtomicInteger count = new AtomicInteger();
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "predict-" + count.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package predict;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.annotation.WebListener;
+
+@WebListener
+public class PredictionListener implements ServletContextListener {
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        if (Predictors.usesPython()) {
+            PythonWorkerPool.warmUp();
+        }
+        // /predictBatch scores with the in-JVM model whatever the backend
+        Predictors.warmUp();
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        System.out.println("Prediction cache: " + Predictors.getCache().stats());
+        if (Predictors.usesPython()) {
+            System.out.println(PythonWorkerPool.stats());
+        }
+        System.out.println("Prediction executor: " + PredictionExecutor.stats());
+        System.out.println("Salary model: " + ModelRetrainer.stats());
+        ModelRetrainer.shutdown();
+        PredictionExecutor.shutdown();
+        PythonWorkerPool.shutdown();
+    }
+}
@@ -0,0 +1,59 @@
+package predict;
+
+import utils.Settings;
+
+import java.io.IOException;
+
+// Picks the /predictData backend: "python" (PredictWorker.py pool, the default) or "jvm" (SalaryModel),
+// behind a result cache.
+public class Predictors {
+    static final String BACKEND = Settings.getString("salary.predict.backend", "python");
+    static final int CACHE_SIZE = Settings.getInt("salary.predict.cacheSize", 10000);
+    static final long CACHE_TTL_MS = Settings.getLong("salary.predict.cacheTtlMs", 10 * 60 * 1000);
+
+    private static final SalaryPredictor python = new PythonPredictor();
+    private static final JvmPredictor jvm = new JvmPredictor();
+    private static final PredictionCache cache = new PredictionCache(get(BACKEND), CACHE_SIZE, CACHE_TTL_MS);
+
+    public static SalaryPredictor get() {
+        return cache;
+    }
+
+    public static SalaryPredictor get(String backend) {
+        if ("jvm".equalsIgnoreCase(backend)) {
+            return jvm;
+        }
+        if ("python".equalsIgnoreCase(backend)) {
+            return python;
+        }
+        throw new IllegalArgumentException("Unknown prediction backend: " + backend);
+    }
+
+    // The in-JVM model, whatever the /predictData backend is; batch scoring always uses it.
+    public static SalaryModel model() throws IOException {
+        return jvm.getModel();
+    }
+
+    // Fits the model now, so no prediction waits for the first fit, and starts retraining it.
+    public static void warmUp() {
+        try {
+            ModelRetrainer.warmUp();
+        } catch (IOException e) {
+            System.out.println(e.getMessage() + ": " + e.getCause());
+        }
+    }
+
+    public static boolean usesPython() {
+        return get(BACKEND) == python;
+    }
+
+    public static PredictionCache getCache() {
+        return cache;
+    }
+
+    // Called after any write to users, jobs, salary_datas or the uploaded dataset.
+    public static void trainingDataChanged() {
+        cache.invalidate();
+        ModelRetrainer.changed();
+    }
+}
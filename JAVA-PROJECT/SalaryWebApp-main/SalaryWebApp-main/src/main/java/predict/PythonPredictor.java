@@ -0,0 +1,12 @@
+package predict;
+
+import java.io.IOException;
+
+public class PythonPredictor implements SalaryPredictor {
+    @Override
+    public double predict(int age, int gender, int educationLevel, int jobId, float yearsOfExperience) throws IOException {
+        String salary = PythonWorkerPool.predict(String.valueOf(age), String.valueOf(gender),
+                String.valueOf(educationLevel), String.valueOf(jobId), String.valueOf(yearsOfExperience));
+        return Double.parseDouble(salary);
+    }
+}
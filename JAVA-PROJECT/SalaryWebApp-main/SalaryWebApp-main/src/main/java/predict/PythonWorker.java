@@ -0,0 +1,97 @@
+package predict;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// One long-lived PredictWorker.py process. The model is fitted once when the process starts and
+// every request afterwards is a single line written to stdin and a single line read back.
+class PythonWorker {
+    private final Process process;
+    private final BufferedWriter input;
+    private final BufferedReader output;
+    private final ScheduledExecutorService watchdog;
+    private long lastUsed;
+
+    PythonWorker(String python, String script, String dataset, ScheduledExecutorService watchdog,
+                 long startupTimeoutMs) throws IOException {
+        ProcessBuilder processBuilder = new ProcessBuilder(python, script, dataset);
+        processBuilder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        this.process = processBuilder.start();
+        this.input = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+        this.output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        this.watchdog = watchdog;
+
+        String ready = readLine(startupTimeoutMs);
+        if (!"ready".equals(ready)) {
+            destroy();
+            throw new IOException("Prediction worker did not start: " + ready);
+        }
+        lastUsed = System.currentTimeMillis();
+    }
+
+    String request(String line, long timeoutMs) throws IOException {
+        input.write(line);
+        input.newLine();
+        input.flush();
+        String answer = readLine(timeoutMs);
+        if (answer == null) {
+            throw new IOException("Prediction worker exited");
+        }
+        if (answer.startsWith("error")) {
+            throw new IllegalArgumentException(answer);
+        }
+        lastUsed = System.currentTimeMillis();
+        return answer;
+    }
+
+    boolean ping(long timeoutMs) {
+        try {
+            return isAlive() && "pong".equals(request("ping", timeoutMs));
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    // A blocked read cannot be interrupted, so a watchdog kills the process when the answer is
+    // late; the read then fails and the pool replaces this worker.
+    private String readLine(long timeoutMs) throws IOException {
+        ScheduledFuture<?> kill = watchdog.schedule(new Runnable() {
+            @Override
+            public void run() {
+                process.destroyForcibly();
+            }
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+        try {
+            return output.readLine();
+        } finally {
+            kill.cancel(false);
+        }
+    }
+
+    boolean isAlive() {
+        return process.isAlive();
+    }
+
+    long getLastUsed() {
+        return lastUsed;
+    }
+
+    void destroy() {
+        process.destroyForcibly();
+        try {
+            input.close();
+        } catch (IOException ignored) {
+        }
+        try {
+            output.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
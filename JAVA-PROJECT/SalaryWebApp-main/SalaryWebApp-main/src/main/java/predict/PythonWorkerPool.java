@@ -0,0 +1,193 @@
+package predict;
+
+import metrics.Metrics;
+import utils.Settings;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps a capped set of warm PredictWorker.py processes instead of starting python3 per request.
+public class PythonWorkerPool {
+    static final String PYTHON = Settings.getString("salary.predict.python", "python3");
+    static final String SCRIPT = Settings.getString("salary.predict.script",
+            "/home/irfan/IdeaProjects/salaryJobWebApp/PredictWorker.py");
+    static final String DATASET = Settings.getString("salary.predict.dataset",
+            "/home/irfan/IdeaProjects/salaryJobWebApp/SalaryData.csv");
+    static final int MAX_WORKERS = Settings.getInt("salary.predict.workers", 2);
+    static final int PRESTART_WORKERS = Settings.getInt("salary.predict.prestart", 1);
+    static final long ACQUIRE_TIMEOUT_MS = Settings.getLong("salary.predict.acquireTimeoutMs", 10000);
+    static final long REQUEST_TIMEOUT_MS = Settings.getLong("salary.predict.requestTimeoutMs", 10000);
+    static final long STARTUP_TIMEOUT_MS = Settings.getLong("salary.predict.startupTimeoutMs", 60000);
+    static final long HEALTH_CHECK_INTERVAL_MS = Settings.getLong("salary.predict.healthCheckIntervalMs", 30000);
+
+    private static final Semaphore permits = new Semaphore(MAX_WORKERS, true);
+    private static final LinkedBlockingDeque<PythonWorker> idle = new LinkedBlockingDeque<>();
+    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1, new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "python-worker-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private static final AtomicLong started = new AtomicLong();
+    private static final AtomicLong restarted = new AtomicLong();
+    private static final AtomicLong requests = new AtomicLong();
+    private static final AtomicLong failures = new AtomicLong();
+    private static volatile boolean healthCheckScheduled = false;
+
+    public static String predict(String age, String gender, String education_level, String job_title,
+                                 String years_of_experience) throws IOException {
+        String line = age + "\t" + gender + "\t" + education_level + "\t" + job_title + "\t" + years_of_experience;
+        if (line.indexOf('\n') >= 0 || line.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("Prediction input must be a single line");
+        }
+        try {
+            if (!permits.tryAcquire(ACQUIRE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                throw new IOException("No prediction worker available within " + ACQUIRE_TIMEOUT_MS + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        PythonWorker worker = null;
+        try {
+            worker = borrow();
+            requests.incrementAndGet();
+            String answer;
+            long start = System.nanoTime();
+            boolean ok = false;
+            try {
+                answer = worker.request(line, REQUEST_TIMEOUT_MS);
+                ok = true;
+            } finally {
+                Metrics.prediction(System.nanoTime() - start, ok);
+            }
+            release(worker);
+            worker = null;
+            return answer;
+        } catch (IllegalArgumentException e) {
+            // bad input, the worker itself is fine
+            release(worker);
+            worker = null;
+            throw e;
+        } finally {
+            if (worker != null) {
+                failures.incrementAndGet();
+                worker.destroy();
+            }
+            permits.release();
+        }
+    }
+
+    // The health check may have started a replacement while a request was running, so the
+    // number of kept processes is capped here.
+    private static void release(PythonWorker worker) {
+        if (idle.size() < MAX_WORKERS) {
+            idle.offerFirst(worker);
+        } else {
+            worker.destroy();
+        }
+    }
+
+    // Most recently used first, so a quiet period lets the extra workers go cold and get checked.
+    private static PythonWorker borrow() throws IOException {
+        PythonWorker worker;
+        while ((worker = idle.pollFirst()) != null) {
+            if (worker.isAlive()) {
+                return worker;
+            }
+            restarted.incrementAndGet();
+            worker.destroy();
+        }
+        return start();
+    }
+
+    private static PythonWorker start() throws IOException {
+        scheduleHealthCheck();
+        PythonWorker worker = new PythonWorker(PYTHON, SCRIPT, DATASET, scheduler, STARTUP_TIMEOUT_MS);
+        started.incrementAndGet();
+        return worker;
+    }
+
+    public static void warmUp() {
+        int count = Math.min(PRESTART_WORKERS, MAX_WORKERS);
+        for (int i = 0; i < count; i++) {
+            try {
+                idle.offerLast(start());
+            } catch (IOException e) {
+                System.out.println("Prediction worker warm-up is failed: " + e.getMessage());
+                return;
+            }
+        }
+        System.out.println("Prediction workers are warmed up (" + count + " workers)");
+    }
+
+    private static void scheduleHealthCheck() {
+        if (healthCheckScheduled) {
+            return;
+        }
+        synchronized (PythonWorkerPool.class) {
+            if (!healthCheckScheduled) {
+                scheduler.scheduleWithFixedDelay(new Runnable() {
+                    @Override
+                    public void run() {
+                        checkHealth();
+                    }
+                }, HEALTH_CHECK_INTERVAL_MS, HEALTH_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                healthCheckScheduled = true;
+            }
+        }
+    }
+
+    // Pings the idle workers and restarts the ones that died or stopped answering.
+    static void checkHealth() {
+        List<PythonWorker> checked = new ArrayList<>();
+        idle.drainTo(checked);
+        int dead = 0;
+        for (PythonWorker worker : checked) {
+            if (worker.ping(REQUEST_TIMEOUT_MS)) {
+                release(worker);
+            } else {
+                worker.destroy();
+                dead++;
+            }
+        }
+        for (int i = 0; i < dead && idle.size() < MAX_WORKERS; i++) {
+            try {
+                idle.offerLast(start());
+                restarted.incrementAndGet();
+            } catch (IOException e) {
+                System.out.println("Prediction worker restart is failed: " + e.getMessage());
+                break;
+            }
+        }
+    }
+
+    public static void shutdown() {
+        scheduler.shutdownNow();
+        PythonWorker worker;
+        while ((worker = idle.pollFirst()) != null) {
+            worker.destroy();
+        }
+    }
+
+    public static String stats() {
+        return "maxWorkers=" + MAX_WORKERS
+                + ", idle=" + idle.size()
+                + ", busy=" + (MAX_WORKERS - permits.availablePermits())
+                + ", started=" + started.get()
+                + ", restarted=" + restarted.get()
+                + ", requests=" + requests.get()
+                + ", failures=" + failures.get();
+    }
+}
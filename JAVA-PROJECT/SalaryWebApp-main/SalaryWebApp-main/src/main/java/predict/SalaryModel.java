@@ -0,0 +1,81 @@
+package predict;
+
+import java.util.Arrays;
+
+// Linear salary model over age, gender, education level, years of experience and a one-hot job title.
+// Scoring is a handful of multiply-adds on primitive arrays, no allocation.
+public class SalaryModel implements SalaryPredictor {
+    static final int INTERCEPT = 0;
+    static final int AGE = 1;
+    static final int FEMALE = 2;
+    static final int MASTERS = 3;
+    static final int PHD = 4;
+    static final int EXPERIENCE = 5;
+    static final int JOB_OFFSET = 6;
+
+    private final double[] coefficients;
+    private final int[] jobIds;
+    private final int[] jobColumns;
+    private final int rows;
+
+    // jobIds is sorted; jobColumns[i] is the one-hot column of jobIds[i], or -1 if that job had no rows
+    SalaryModel(double[] coefficients, int[] jobIds, int[] jobColumns, int rows) {
+        this.coefficients = coefficients;
+        this.jobIds = jobIds;
+        this.jobColumns = jobColumns;
+        this.rows = rows;
+    }
+
+    @Override
+    public double predict(int age, int gender, int educationLevel, int jobId, float yearsOfExperience) {
+        double[] c = coefficients;
+        double salary = c[INTERCEPT] + c[AGE] * age + c[EXPERIENCE] * yearsOfExperience;
+        if (gender == 1) {
+            salary += c[FEMALE];
+        }
+        if (educationLevel == 1) {
+            salary += c[MASTERS];
+        } else if (educationLevel == 2) {
+            salary += c[PHD];
+        }
+        int column = jobColumn(jobId);
+        if (column >= 0) {
+            salary += c[column];
+        }
+        return salary;
+    }
+
+    // Scores count profiles from parallel arrays into salaries, one pass with no per-row calls;
+    // same result as predict() for each row.
+    public void predict(int[] ages, int[] genders, int[] educationLevels, int[] jobIds, float[] yearsOfExperience,
+                        int count, double[] salaries) {
+        double[] c = coefficients;
+        double intercept = c[INTERCEPT];
+        double age = c[AGE];
+        double experience = c[EXPERIENCE];
+        double female = c[FEMALE];
+        double masters = c[MASTERS];
+        double phd = c[PHD];
+        for (int i = 0; i < count; i++) {
+            int education = educationLevels[i];
+            double salary = intercept + age * ages[i] + experience * yearsOfExperience[i];
+            salary += genders[i] == 1 ? female : 0;
+            salary += education == 1 ? masters : education == 2 ? phd : 0;
+            int column = jobColumn(jobIds[i]);
+            salaries[i] = column >= 0 ? salary + c[column] : salary;
+        }
+    }
+
+    int jobColumn(int jobId) {
+        int i = Arrays.binarySearch(jobIds, jobId);
+        return i < 0 ? -1 : jobColumns[i];
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getFeatures() {
+        return coefficients.length;
+    }
+}
@@ -0,0 +1,152 @@
+package predict;
+
+import metrics.QueryTimer;
+import utils.ConnectionPool;
+import utils.DBUtil;
+import utils.SalarySnapshot;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Fits SalaryModel by ridge-regularised least squares (normal equations + Cholesky) on salary_view;
+// see NormalEquations for the sums and ModelRetrainer for keeping them current.
+public class SalaryModelTrainer {
+    static final double RIDGE = 1e-3;
+
+    // salary_view's joins, with the job id instead of its title and ordered by salary_datas.id so
+    // rows appended later can be read on their own.
+    static final String ROWS = "select salary_datas.id, users.age, users.gender, users.education_level, "
+            + "users.years_of_experience, salary_datas.job_id, users.salary from salary_datas "
+            + "join users on salary_datas.user_id = users.id "
+            + "join jobs on salary_datas.job_id = jobs.job_id "
+            + "where salary_datas.id > ? and salary_datas.id <= ? order by salary_datas.id";
+
+    public static SalaryModel trainFromSnapshot(SalarySnapshot snapshot) {
+        NormalEquations equations = new NormalEquations();
+        addRows(equations, snapshot, Long.MAX_VALUE);
+        return equations.solve();
+    }
+
+    public static SalaryModel trainFromDatabase() throws SQLException {
+        NormalEquations equations = new NormalEquations();
+        addRows(equations, 0, Long.MAX_VALUE);
+        return equations.solve();
+    }
+
+    // Adds the salary_datas rows with afterId < id <= upToId; returns how many were read.
+    static int addRows(NormalEquations equations, long afterId, long upToId) throws SQLException {
+        int rows = 0;
+        try (Connection connection = ConnectionPool.getConnection();
+             QueryTimer timer = QueryTimer.start(ROWS);
+             PreparedStatement statement = DBUtil.prepareStreaming(connection, ROWS, afterId, upToId);
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                rows++;
+                timer.row();
+                int gender = encodeGender(rs.getString(3));
+                int educationLevel = encodeEducationLevel(rs.getString(4));
+                if (gender < 0 || educationLevel < 0) {
+                    continue;
+                }
+                equations.add(rs.getInt(2), gender, educationLevel, rs.getInt(6), rs.getFloat(5), rs.getInt(7));
+            }
+        }
+        return rows;
+    }
+
+    // Adds the snapshot rows with id <= upToId; returns how many were read.
+    static int addRows(NormalEquations equations, SalarySnapshot snapshot, long upToId) {
+        String[] genderValues = snapshot.getGenders();
+        int[] genders = new int[genderValues.length];
+        for (int i = 0; i < genders.length; i++) {
+            genders[i] = encodeGender(genderValues[i]);
+        }
+        String[] educationValues = snapshot.getEducationLevels();
+        int[] educationLevels = new int[educationValues.length];
+        for (int i = 0; i < educationLevels.length; i++) {
+            educationLevels[i] = encodeEducationLevel(educationValues[i]);
+        }
+        int[] jobIds = snapshot.getJobIds();
+
+        int rows = snapshot.getRows();
+        int row = 0;
+        for (; row < rows && snapshot.id(row) <= upToId; row++) {
+            int genderCode = snapshot.gender(row);
+            int educationCode = snapshot.educationLevel(row);
+            int gender = genderCode < 0 ? -1 : genders[genderCode];
+            int educationLevel = educationCode < 0 ? -1 : educationLevels[educationCode];
+            if (gender < 0 || educationLevel < 0) {
+                continue;
+            }
+            equations.add(snapshot.age(row), gender, educationLevel, jobIds[snapshot.job(row)],
+                    snapshot.yearsOfExperience(row), snapshot.salary(row));
+        }
+        return row;
+    }
+
+    // Solves (X'X + ridge*I) beta = X'y with a Cholesky factorisation; the intercept is not penalised.
+    static double[] solve(double[] xtx, double[] xty, int n) {
+        double[] l = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= i; j++) {
+                double sum = xtx[i * n + j];
+                if (i == j && i != SalaryModel.INTERCEPT) {
+                    sum += RIDGE;
+                }
+                for (int k = 0; k < j; k++) {
+                    sum -= l[i * n + k] * l[j * n + k];
+                }
+                if (i == j) {
+                    l[i * n + i] = Math.sqrt(Math.max(sum, 1e-12));
+                } else {
+                    l[i * n + j] = sum / l[j * n + j];
+                }
+            }
+        }
+        double[] z = new double[n];
+        for (int i = 0; i < n; i++) {
+            double sum = xty[i];
+            for (int k = 0; k < i; k++) {
+                sum -= l[i * n + k] * z[k];
+            }
+            z[i] = sum / l[i * n + i];
+        }
+        double[] beta = new double[n];
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = z[i];
+            for (int k = i + 1; k < n; k++) {
+                sum -= l[k * n + i] * beta[k];
+            }
+            beta[i] = sum / l[i * n + i];
+        }
+        return beta;
+    }
+
+    static int encodeGender(String gender) {
+        if ("Male".equalsIgnoreCase(gender)) {
+            return 0;
+        }
+        if ("Female".equalsIgnoreCase(gender)) {
+            return 1;
+        }
+        return -1;
+    }
+
+    static int encodeEducationLevel(String educationLevel) {
+        if (educationLevel == null) {
+            return -1;
+        }
+        if (educationLevel.startsWith("Bachelor")) {
+            return 0;
+        }
+        if (educationLevel.startsWith("Master")) {
+            return 1;
+        }
+        if (educationLevel.equalsIgnoreCase("PhD")) {
+            return 2;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,8 @@
+package predict;
+
+import java.io.IOException;
+
+// gender: 0 = Male, 1 = Female; educationLevel: 0 = Bachelor's, 1 = Master's, 2 = PhD (as posted by the form)
+public interface SalaryPredictor {
+    double predict(int age, int gender, int educationLevel, int jobId, float yearsOfExperience) throws IOException;
+}
@@ -0,0 +1,85 @@
+package schema;
+
+import utils.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+// Runs EXPLAIN on the lookups the servlets make on every request and reports any that would scan
+// a whole table or index. Understands MySQL's tabular EXPLAIN (type ALL or index) and H2's plan
+// text, where only a tableScan is recognisable.
+public class IndexCheck {
+    // {what, query}; literal values so the plan is the one the optimizer picks for a real lookup
+    static final String[][] HOT_QUERIES = {
+            {"login", "select password, role from members where username = 'admin'"},
+            {"relations of a user", "select job_id from salary_datas where user_id = 1"},
+            {"relations of a job", "select user_id from salary_datas where job_id = 1"},
+            {"job by id", "select job_title from jobs where job_id = 1"},
+            {"user by id", "select age, gender, education_level, years_of_experience, salary from users where id = 1"},
+            {"salary_view row", "select * from salary_view where id = 1"},
+    };
+
+    public static List<String> run() throws SQLException {
+        try (Connection connection = ConnectionPool.getConnection()) {
+            return run(connection);
+        }
+    }
+
+    // Returns one line per query that is not served by an index; empty when all are.
+    public static List<String> run(Connection connection) throws SQLException {
+        List<String> problems = new ArrayList<>();
+        try (Statement statement = connection.createStatement()) {
+            for (String[] query : HOT_QUERIES) {
+                try (ResultSet plan = statement.executeQuery("explain " + query[1])) {
+                    String problem = check(plan);
+                    if (problem != null) {
+                        problems.add(query[0] + ": " + problem + " [" + query[1] + "]");
+                    }
+                }
+            }
+        }
+        if (problems.isEmpty()) {
+            System.out.println("Index check: all " + HOT_QUERIES.length + " hot queries use indexes");
+        } else {
+            for (String problem : problems) {
+                System.out.println("Index check: " + problem);
+            }
+        }
+        return problems;
+    }
+
+    private static String check(ResultSet plan) throws SQLException {
+        ResultSetMetaData meta = plan.getMetaData();
+        int type = column(meta, "type");
+        if (type < 0) {
+            StringBuilder text = new StringBuilder();
+            while (plan.next()) {
+                text.append(plan.getString(1)).append('\n');
+            }
+            return text.indexOf("tableScan") >= 0 ? "table scan in plan " + text.toString().replaceAll("\\s+", " ").trim() : null;
+        }
+        int table = column(meta, "table");
+        StringBuilder scanned = new StringBuilder();
+        while (plan.next()) {
+            String access = plan.getString(type);
+            if ("ALL".equalsIgnoreCase(access) || "index".equalsIgnoreCase(access)) {
+                scanned.append(scanned.length() == 0 ? "" : ", ").append(table < 0 ? "?" : plan.getString(table));
+            }
+        }
+        return scanned.length() == 0 ? null : "full scan of " + scanned;
+    }
+
+    private static int column(ResultSetMetaData meta, String name) throws SQLException {
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            if (name.equalsIgnoreCase(meta.getColumnLabel(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,160 @@
+package schema;
+
+import utils.ConnectionPool;
+import utils.Settings;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+// Brings the job_salary schema up to date from the numbered scripts in db/migration. Applied
+// versions are recorded in schema_version, so every script runs once per database. A script is
+// applied as a whole or, where the database allows DDL in transactions, not at all; MySQL commits
+// DDL implicitly, so scripts are written to be safe to re-run after a partial failure.
+public class SchemaMigrator {
+    public static final boolean ENABLED = Settings.getBoolean("salary.db.migrate", true);
+
+    // In order. Add new scripts at the end; never edit one that has shipped.
+    static final String[] MIGRATIONS = {
+            "V1__create_tables.sql",
+            "V2__salary_view.sql",
+            "V3__indexes.sql",
+            "V4__members_password_width.sql",
+            "V5__listing_sort_indexes.sql",
+            "V6__members_unique_username.sql",
+    };
+
+    private static final String LOCATION = "/db/migration/";
+
+    public static void migrate() throws SQLException, IOException {
+        try (Connection connection = ConnectionPool.getConnection()) {
+            migrate(connection);
+        }
+    }
+
+    public static int migrate(Connection connection) throws SQLException, IOException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists schema_version (version int primary key, "
+                    + "script varchar(200) not null, installed_at timestamp default current_timestamp)");
+        }
+        int current = currentVersion(connection);
+        int applied = 0;
+        for (String script : MIGRATIONS) {
+            int version = version(script);
+            if (version <= current) {
+                continue;
+            }
+            long start = System.nanoTime();
+            apply(connection, version, script);
+            applied++;
+            System.out.println("Schema migrated to V" + version + " (" + script + ", "
+                    + (System.nanoTime() - start) / 1000000 + " ms)");
+        }
+        if (applied == 0) {
+            System.out.println("Schema is up to date (V" + current + ")");
+        }
+        return applied;
+    }
+
+    public static int currentVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select max(version) from schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void apply(Connection connection, int version, String script) throws SQLException, IOException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : statements(read(script))) {
+                try {
+                    statement.execute(sql);
+                } catch (SQLException e) {
+                    if (!alreadyExists(e)) {
+                        throw new SQLException(script + ": " + e.getMessage() + "\n" + sql, e.getSQLState(), e.getErrorCode(), e);
+                    }
+                    // an index someone created by hand before migrations existed
+                    System.out.println(script + ": skipped, " + e.getMessage());
+                }
+            }
+            try (PreparedStatement record = connection.prepareStatement("insert into schema_version (version, script) values (?, ?)")) {
+                record.setInt(1, version);
+                record.setString(2, script);
+                record.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    // MySQL 1061 duplicate key name, H2 42111 index already exists
+    private static boolean alreadyExists(SQLException e) {
+        return e.getErrorCode() == 1061 || e.getErrorCode() == 42111;
+    }
+
+    static int version(String script) {
+        return Integer.parseInt(script.substring(1, script.indexOf("__")));
+    }
+
+    static String read(String script) throws IOException {
+        InputStream in = SchemaMigrator.class.getResourceAsStream(LOCATION + script);
+        if (in == null) {
+            throw new IOException("Missing migration " + LOCATION + script);
+        }
+        StringBuilder text = new StringBuilder();
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            char[] buffer = new char[4096];
+            int n;
+            while ((n = reader.read(buffer)) > 0) {
+                text.append(buffer, 0, n);
+            }
+        }
+        return text.toString();
+    }
+
+    // Splits on ';' at line ends after dropping "--" comment lines; the scripts keep to that shape.
+    static List<String> statements(String text) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : text.split("\r?\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String sql = current.toString().trim();
+                statements.add(sql.substring(0, sql.length() - 1));
+                current.setLength(0);
+            }
+        }
+        if (current.toString().trim().length() > 0) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+
+    // Migrates the database named by the salary.db.* settings and checks the hot query plans.
+    public static void main(String[] args) throws Exception {
+        migrate();
+        List<String> problems = IndexCheck.run();
+        ConnectionPool.shutdown();
+        if (!problems.isEmpty()) {
+            System.exit(1);
+        }
+    }
+}
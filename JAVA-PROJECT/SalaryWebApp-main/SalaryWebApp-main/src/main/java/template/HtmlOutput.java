@@ -0,0 +1,152 @@
+package template;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Buffered UTF-8 writer for pages. Pre-encoded fragments are copied as bytes; only the dynamic
+// values go through the encoder, straight into the buffer without intermediate Strings.
+public class HtmlOutput {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int count = 0;
+    private long written = 0;
+
+    public HtmlOutput(OutputStream out) {
+        this(out, BUFFER_SIZE);
+    }
+
+    public HtmlOutput(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.buffer = new byte[bufferSize];
+    }
+
+    public static HtmlOutput of(HttpServletResponse resp) throws IOException {
+        resp.setContentType("text/html;charset=UTF-8");
+        return new HtmlOutput(resp.getOutputStream());
+    }
+
+    public HtmlOutput write(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - count) {
+            flushBuffer();
+            if (bytes.length > buffer.length) {
+                out.write(bytes);
+                written += bytes.length;
+                return this;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+        return this;
+    }
+
+    // Markup that is already safe; encoded but not escaped.
+    public HtmlOutput raw(CharSequence value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            i = encode(value, i, false);
+        }
+        return this;
+    }
+
+    // Anything user or database supplied; escaped for both element and attribute context.
+    public HtmlOutput text(Object value) throws IOException {
+        if (value == null) {
+            return this;
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+            return number(((Number) value).longValue());
+        }
+        CharSequence chars = value instanceof CharSequence ? (CharSequence) value : value.toString();
+        for (int i = 0; i < chars.length(); i++) {
+            i = encode(chars, i, true);
+        }
+        return this;
+    }
+
+    public HtmlOutput number(long value) throws IOException {
+        if (buffer.length - count < 20) {
+            flushBuffer();
+        }
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                return raw(Long.toString(value));
+            }
+            buffer[count++] = '-';
+            value = -value;
+        }
+        int start = count;
+        do {
+            buffer[count++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        for (int i = start, j = count - 1; i < j; i++, j--) {
+            byte b = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = b;
+        }
+        return this;
+    }
+
+    public long getBytesWritten() {
+        return written + count;
+    }
+
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    private int encode(CharSequence chars, int i, boolean escape) throws IOException {
+        if (buffer.length - count < 6) {
+            flushBuffer();
+        }
+        char c = chars.charAt(i);
+        if (escape) {
+            switch (c) {
+                case '<': return ascii("&lt;", i);
+                case '>': return ascii("&gt;", i);
+                case '&': return ascii("&amp;", i);
+                case '"': return ascii("&quot;", i);
+                case '\'': return ascii("&#39;", i);
+                default: break;
+            }
+        }
+        if (c < 0x80) {
+            buffer[count++] = (byte) c;
+        } else if (c < 0x800) {
+            buffer[count++] = (byte) (0xC0 | (c >> 6));
+            buffer[count++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && i + 1 < chars.length() && Character.isLowSurrogate(chars.charAt(i + 1))) {
+            int codePoint = Character.toCodePoint(c, chars.charAt(++i));
+            buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+            buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            buffer[count++] = '?';
+        } else {
+            buffer[count++] = (byte) (0xE0 | (c >> 12));
+            buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[count++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return i;
+    }
+
+    private int ascii(String entity, int i) {
+        for (int k = 0; k < entity.length(); k++) {
+            buffer[count++] = (byte) entity.charAt(k);
+        }
+        return i;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            written += count;
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package template;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+// The Bootstrap chrome shared by every page, compiled once when the class is loaded
+// (TemplateListener loads it at startup).
+public class Pages {
+    private static final String ICON = "    <link rel=\"icon\" type=\"image/png\" href=\"https://lh3.googleusercontent.com/pw/AJFCJaX6FIwtFds-OdncRF5Eh4NpiaWx9y5nUmMn_KI2YHqRBY-rhoEmGjXsieFX5V3bhcPAEg-SIlGvKLeMjiSxyeCsQ2zhMfdYuaChvvgSOjIggEivvoXooPOzbyLRGe2WhfjeVswUVey-x_OVNAHnJDA=w190-h185-s-no?authuser=0\">\n";
+    private static final String BOOTSTRAP_CSS = "    <link href=\"https://cdn.jsdelivr.net/npm/bootstrap@5.0.2/dist/css/bootstrap.min.css\" rel=\"stylesheet\" integrity=\"sha384-EVSTQN3/azprG1Anm3QDgpJLIm9Nao0Yz1ztcQTwFspd3yD65VohhpuuCOmLASjC\" crossorigin=\"anonymous\">\n";
+    private static final String BOOTSTRAP_JS = "    <script src=\"https://cdn.jsdelivr.net/npm/bootstrap@5.0.2/dist/js/bootstrap.bundle.min.js\" integrity=\"sha384-MrcW6ZMFYlzcLA8Nl+NtUVF0sA7MsXsP1UyJoMp4YLEuNSfAP+JcXn/tWtIaxVXM\" crossorigin=\"anonymous\"></script>\n";
+
+    public static final Template HEAD = Template.compile("<html>\n" +
+            "  <head>\n" +
+            "    <!-- Required meta tags -->\n" +
+            "    <meta charset=\"utf-8\">\n" +
+            "    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1\">\n" +
+            "\n" +
+            ICON +
+            "    <!-- Bootstrap CSS -->\n" +
+            BOOTSTRAP_CSS +
+            "    <link rel=\"stylesheet\" href=\"https://cdn.datatables.net/1.13.4/css/dataTables.bootstrap5.min.css\">\n" +
+            "    <title>{{title}}</title>\n" +
+            "  </head>\n" +
+            "<body>\n");
+
+    public static final Template NAV = Template.compile("    <header class=\"py-3 mb-3 bg-dark text-white\">\n" +
+            "        <div class=\"container-fluid d-grid gap-3 align-items-center\" style=\"grid-template-columns: 1fr 2fr;\">\n" +
+            "            <ul class=\"text-center m-auto\">\n" +
+            "                <li>\n" +
+            "                    <h4 class=\"m-1\">Salary Prediction</h4>\n" +
+            "                </li>\n" +
+            "            </ul>\n" +
+            "          <div class=\"d-flex justify-content-end\">    \n" +
+            "            <div class=\"flex-shrink-0 dropdown\">\n" +
+            "              <a href=\"#\" class=\"d-block link-light text-decoration-none dropdown-toggle\" id=\"dropdownUser2\" data-bs-toggle=\"dropdown\" aria-expanded=\"false\">\n" +
+            "                <img src=\"https://cdn-icons-png.flaticon.com/512/3135/3135715.png\" alt=\"mdo\" width=\"32\" height=\"32\" class=\"rounded-circle\">\n" +
+            "              </a>\n" +
+            "              <ul class=\"dropdown-menu text-small shadow\" aria-labelledby=\"dropdownUser2\" style=\"\">\n" +
+            "                <li><a class=\"dropdown-item\" href=\"#\">Profile</a></li>\n" +
+            "                <li><hr class=\"dropdown-divider\"></li>\n" +
+            "                <li><a class=\"dropdown-item\" href=\"logout\">Sign out</a></li>\n" +
+            "              </ul>\n" +
+            "            </div>\n" +
+            "          </div>\n" +
+            "        </div>\n" +
+            "    </header>\n" +
+            "    <div class=\"container-fluid\">\n" +
+            "      <div class=\"row\">\n" +
+            "        <nav id=\"sidebarMenu\" class=\"col-md-3 col-lg-2 d-md-block bg-light sidebar collapse\">\n" +
+            "          <div class=\"position-sticky pt-3\">\n" +
+            "            <ul class=\"nav flex-column\">\n" +
+            "              <li class=\"nav-item\">\n" +
+            "                <a class=\"nav-link active\" aria-current=\"page\" href=\"main\" style=\"color: black;\">\n" +
+            "                  View Data\n" +
+            "                </a>\n" +
+            "              </li>\n");
+
+    public static final Template ADMIN_NAV = Template.compile("              <li class=\"nav-item\">\n" +
+            "                <button class=\"btn btn-toggle align-items-center rounded\" data-bs-toggle=\"collapse\" data-bs-target=\"#create-collapse\" aria-expanded=\"false\">\n" +
+            "                  Create Data\n" +
+            "                </button>\n" +
+            "                <div class=\"collapse\" id=\"create-collapse\" style=\"\">\n" +
+            "                  <ul class=\"btn-toggle-nav list-unstyled fw-normal pb-1 small\">\n" +
+            "                    <li><a href=\"createDataUser\" class=\"link-dark rounded m-4\">User</a></li>\n" +
+            "                    <li><a href=\"createDataJob\" class=\"link-dark rounded m-4\">Job</a></li>\n" +
+            "                    <li><a href=\"createDataRelation\" class=\"link-dark rounded m-4\">Relation</a></li>\n" +
+            "                  </ul>\n" +
+            "                </div>\n" +
+            "              </li>\n" +
+            "              <li class=\"nav-item\">\n" +
+            "                <button class=\"btn btn-toggle align-items-center rounded\" data-bs-toggle=\"collapse\" data-bs-target=\"#update-collapse\" aria-expanded=\"false\">\n" +
+            "                  Update Data\n" +
+            "                </button>\n" +
+            "                <div class=\"collapse\" id=\"update-collapse\" style=\"\">\n" +
+            "                  <ul class=\"btn-toggle-nav list-unstyled fw-normal pb-1 small\">\n" +
+            "                    <li><a href=\"getDataUser\" class=\"link-dark rounded m-4\">User</a></li>\n" +
+            "                    <li><a href=\"getDataJob\" class=\"link-dark rounded m-4\">Job</a></li>\n" +
+            "                    <li><a href=\"getDataRelation\" class=\"link-dark rounded m-4\">Relation</a></li>\n" +
+            "                  </ul>\n" +
+            "                </div>\n" +
+            "              </li>\n" +
+            "              <li class=\"nav-item\">\n" +
+            "                <button class=\"btn btn-toggle align-items-center rounded\" data-bs-toggle=\"collapse\" data-bs-target=\"#delete-collapse\" aria-expanded=\"false\">\n" +
+            "                  Delete Data\n" +
+            "                </button>\n" +
+            "                <div class=\"collapse\" id=\"delete-collapse\" style=\"\">\n" +
+            "                  <ul class=\"btn-toggle-nav list-unstyled fw-normal pb-1 small\">\n" +
+            "                    <li><a href=\"deleteDataUser\" class=\"link-dark rounded m-4\">User</a></li>\n" +
+            "                    <li><a href=\"deleteDataJob\" class=\"link-dark rounded m-4\">Job</a></li>\n" +
+            "                    <li><a href=\"deleteDataRelation\" class=\"link-dark rounded m-4\">Relation</a></li>\n" +
+            "                  </ul>\n" +
+            "                </div>\n" +
+            "              </li>\n");
+
+    public static final Template NAV_END = Template.compile("              <li class=\"nav-item\">\n" +
+            "                <a class=\"nav-link\" href=\"predictData\" style=\"color: black;\">\n" +
+            "                  Predict Salary\n" +
+            "                </a>\n" +
+            "              </li>\n" +
+            "            </ul>\n" +
+            "          </div>\n" +
+            "        </nav>\n" +
+            "        <main class=\"col-md-9 ms-sm-auto col-lg-10 px-md-4\">\n");
+
+    public static final Template HEADING = Template.compile("          <div class=\"d-flex justify-content-between flex-wrap flex-md-nowrap align-items-center pt-3 pb-2 mb-3 border-bottom\">\n" +
+            "            <h1 class=\"h2\">{{heading}}</h1>\n" +
+            "          </div>\n");
+
+    public static final Template FORM_START = Template.compile("            <div class=\"row\">\n" +
+            "              <div class=\"col-lg-6\">\n" +
+            "                <form action=\"{{action}}\" method=\"post\">\n");
+
+    // Submit button behind the "Are you sure ?" confirmation modal.
+    public static final Template FORM_END = Template.compile("                <div class=\"text-center\">\n" +
+            "                  <button class=\"btn btn-primary\" type=\"button\" data-bs-toggle=\"modal\" data-bs-target=\"#staticBackdrop\">{{button}}</button>\n" +
+            "                </div>\n" +
+            "               <!-- Modal -->\n" +
+            "                  <div class=\"modal fade\" id=\"staticBackdrop\" data-bs-backdrop=\"static\" data-bs-keyboard=\"false\" tabindex=\"-1\" aria-labelledby=\"staticBackdropLabel\" aria-hidden=\"true\">\n" +
+            "                    <div class=\"modal-dialog modal-dialog-centered\">\n" +
+            "                      <div class=\"modal-content\">\n" +
+            "                        <div class=\"modal-header\">\n" +
+            "                          <h5 class=\"modal-title\" id=\"staticBackdropLabel\">Confirmation</h5>\n" +
+            "                          <button type=\"button\" class=\"btn-close\" data-bs-dismiss=\"modal\" aria-label=\"Close\"></button>\n" +
+            "                        </div>\n" +
+            "                        <div class=\"modal-body\">\n" +
+            "                          <h6>Are you sure ? </h6>\n" +
+            "                        </div>\n" +
+            "                        <div class=\"modal-footer\">\n" +
+            "                          <button type=\"button\" class=\"btn btn-danger\" data-bs-dismiss=\"modal\">Close</button>\n" +
+            "                          <button type=\"submit\" class=\"btn btn-primary\">{{button}}</button>\n" +
+            "                        </div>\n" +
+            "                      </div>\n" +
+            "                    </div>\n" +
+            "                  </div>\n" +
+            "              </form>\n" +
+            "              </div>\n" +
+            "            </div>\n");
+
+    public static final Template SELECT_START = Template.compile("                  <select class=\"form-select mb-3\" aria-label=\"Default select example\" name=\"{{name}}\" id=\"{{name}}\">\n");
+
+    public static final Template SELECT_PLACEHOLDER = Template.compile("                    <option selected>{{label}}</option>\n");
+
+    private static final byte[] OPTION_START = "                    <option value='".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] OPTION_VALUE_END = "'>".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] OPTION_SELECTED_END = "' selected>".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] OPTION_END = "</option>\n".getBytes(StandardCharsets.UTF_8);
+
+    public static final Template SELECT_END = Template.compile("                  </select>\n");
+
+    public static final Template TABLE_START = Template.compile("          <table id=\"example\" class=\"table table-striped\" style=\"width:100%\">\n" +
+            "                <thead>\n");
+
+    public static final Template TABLE_BODY = Template.compile("                </thead>\n" +
+            "                <tbody>\n");
+
+    public static final Template TABLE_FOOT = Template.compile("                </tbody>\n" +
+            "                <tfoot>\n");
+
+    public static final Template TABLE_END = Template.compile("                </tfoot>\n" +
+            "            </table>\n");
+
+    public static final Template END = Template.compile("        </main>\n" +
+            "      </div>\n" +
+            "    </div>\n" +
+            BOOTSTRAP_JS +
+            "    <script src=\"https://code.jquery.com/jquery-3.5.1.js\"></script>\n");
+
+    public static final Template DATATABLE_SCRIPTS = Template.compile("    <script src=\"https://cdn.datatables.net/1.13.4/js/jquery.dataTables.min.js\"></script>\n" +
+            "    <script src=\"https://cdn.datatables.net/1.13.4/js/dataTables.bootstrap5.min.js\"></script>\n");
+
+    public static final Template CLOSE = Template.compile("</body>\n" +
+            "</html>\n");
+
+    // Stand-alone pages outside the dashboard (login, register and their messages).
+    public static final Template PLAIN_HEAD = Template.compile("<!doctype html>\n" +
+            "<html lang=\"en\">\n" +
+            "  <head>\n" +
+            "    <!-- Required meta tags -->\n" +
+            "    <meta charset=\"utf-8\">\n" +
+            "    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1\">\n" +
+            "\n" +
+            ICON +
+            "    <!-- Bootstrap CSS -->\n" +
+            BOOTSTRAP_CSS +
+            "\n" +
+            "    <title>{{title}}</title>\n" +
+            "  </head>\n");
+
+    public static final Template PLAIN_END = Template.compile(BOOTSTRAP_JS +
+            "  </body>\n" +
+            "</html>\n");
+
+    public static final Template MESSAGE = Template.compile("<body class=\"text-center\" style=\"background-color: #E0E0E0\">\n" +
+            "    <div class=\"container\">\n" +
+            "        <div class=\"row  d-flex justify-content-center align-items-center min-vh-100\">\n" +
+            "            <div class=\"col-12\">\n" +
+            "                <h1 class=\"text-muted\">{{heading}}</h1>\n" +
+            "                <h4 class=\"text-muted\"><a href=\"{{href}}\">{{link}}</a></h4>\n" +
+            "            </div>\n" +
+            "        </div>\n" +
+            "    </div>\n");
+
+    // Everything up to and including the opening <main> tag of a dashboard page.
+    public static void begin(HtmlOutput out, boolean admin) throws IOException {
+        HEAD.write(out, "Salary Prediction | Main");
+        NAV.write(out);
+        if (admin) {
+            ADMIN_NAV.write(out);
+        }
+        NAV_END.write(out);
+    }
+
+    public static void end(HtmlOutput out) throws IOException {
+        END.write(out);
+        CLOSE.write(out);
+        out.flush();
+    }
+
+    // Header row goes in both <thead> and <tfoot>; rows are written in between.
+    public static void tableStart(HtmlOutput out, Template columns) throws IOException {
+        TABLE_START.write(out);
+        columns.write(out);
+        TABLE_BODY.write(out);
+    }
+
+    public static void tableEnd(HtmlOutput out, Template columns) throws IOException {
+        TABLE_FOOT.write(out);
+        columns.write(out);
+        TABLE_END.write(out);
+    }
+
+    public static void endWithDataTable(HtmlOutput out, Template script) throws IOException {
+        END.write(out);
+        DATATABLE_SCRIPTS.write(out);
+        script.write(out);
+        CLOSE.write(out);
+        out.flush();
+    }
+
+    public static void message(HtmlOutput out, String title, String heading, String href, String link) throws IOException {
+        PLAIN_HEAD.write(out, title);
+        MESSAGE.write(out, heading, href, link);
+        PLAIN_END.write(out);
+        out.flush();
+    }
+
+    public static void option(HtmlOutput out, long value, boolean selected) throws IOException {
+        out.write(OPTION_START).number(value).write(selected ? OPTION_SELECTED_END : OPTION_VALUE_END).number(value).write(OPTION_END);
+    }
+
+    public static void option(HtmlOutput out, long value, Object label, boolean selected) throws IOException {
+        out.write(OPTION_START).number(value).write(selected ? OPTION_SELECTED_END : OPTION_VALUE_END).text(label).write(OPTION_END);
+    }
+
+    public static int size() {
+        return HEAD.size() + NAV.size() + ADMIN_NAV.size() + NAV_END.size() + HEADING.size() + FORM_START.size()
+                + FORM_END.size() + SELECT_START.size() + SELECT_PLACEHOLDER.size() + SELECT_END.size()
+                + TABLE_START.size() + TABLE_BODY.size() + TABLE_FOOT.size() + TABLE_END.size() + END.size()
+                + DATATABLE_SCRIPTS.size() + CLOSE.size() + PLAIN_HEAD.size() + PLAIN_END.size() + MESSAGE.size();
+    }
+}
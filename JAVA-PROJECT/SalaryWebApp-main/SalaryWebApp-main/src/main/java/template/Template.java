@@ -0,0 +1,77 @@
+package template;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// A page fragment with {{name}} slots, split once into UTF-8 byte runs. Rendering copies the
+// runs and escapes the slot values in between; values are passed in order of first appearance,
+// and a name that appears twice reuses the same value.
+public class Template {
+    private final byte[][] parts;
+    private final int[] slots;
+    private final String[] names;
+
+    private Template(byte[][] parts, int[] slots, String[] names) {
+        this.parts = parts;
+        this.slots = slots;
+        this.names = names;
+    }
+
+    public static Template compile(String source) {
+        List<byte[]> parts = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int from = 0;
+        int open;
+        while ((open = source.indexOf("{{", from)) >= 0) {
+            int close = source.indexOf("}}", open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed slot at " + open);
+            }
+            String name = source.substring(open + 2, close).trim();
+            int index = names.indexOf(name);
+            if (index < 0) {
+                index = names.size();
+                names.add(name);
+            }
+            parts.add(source.substring(from, open).getBytes(StandardCharsets.UTF_8));
+            slots.add(index);
+            from = close + 2;
+        }
+        parts.add(source.substring(from).getBytes(StandardCharsets.UTF_8));
+
+        int[] slotIndexes = new int[slots.size()];
+        for (int i = 0; i < slotIndexes.length; i++) {
+            slotIndexes[i] = slots.get(i);
+        }
+        return new Template(parts.toArray(new byte[parts.size()][]), slotIndexes, names.toArray(new String[names.size()]));
+    }
+
+    public void write(HtmlOutput out) throws IOException {
+        if (names.length != 0) {
+            throw new IllegalArgumentException("Expected " + names.length + " values, got 0");
+        }
+        out.write(parts[0]);
+    }
+
+    public void write(HtmlOutput out, Object... values) throws IOException {
+        if (values.length != names.length) {
+            throw new IllegalArgumentException("Expected " + names.length + " values, got " + values.length);
+        }
+        for (int i = 0; i < slots.length; i++) {
+            out.write(parts[i]);
+            out.text(values[slots[i]]);
+        }
+        out.write(parts[slots.length]);
+    }
+
+    public int size() {
+        int size = 0;
+        for (byte[] part : parts) {
+            size += part.length;
+        }
+        return size;
+    }
+}
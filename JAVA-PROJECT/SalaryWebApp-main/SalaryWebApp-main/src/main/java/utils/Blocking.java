@@ -0,0 +1,229 @@
+package utils;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+// Moves a servlet's blocking work (JDBC cursors, long exports) from the container thread onto a
+// virtual thread of its own, using async processing, so thousands of slow requests wait on the
+// connection pool without holding Tomcat's platform threads. Without virtual threads, past
+// MAX_CONCURRENT, or when a filter in the chain is not async, the handler runs inline as before.
+// The handler writes through a GuardedResponse, which refuses writes once the container has
+// timed the request out.
+public class Blocking {
+    static final int MAX_CONCURRENT = Settings.getInt("salary.blocking.maxConcurrent", 2000);
+    // 0 = no container timeout: a large /exportCSV can stream for longer than any fixed limit
+    static final long TIMEOUT_MS = Settings.getLong("salary.blocking.timeoutMs", 0);
+
+    private static final ExecutorService executor = VirtualThreads.newPerTaskExecutor("request-");
+    private static final Semaphore permits = new Semaphore(MAX_CONCURRENT);
+
+    public interface Handler {
+        void handle(HttpServletRequest req, HttpServletResponse resp) throws IOException, ServletException;
+    }
+
+    public static void run(HttpServletRequest req, HttpServletResponse resp, Handler handler) throws IOException, ServletException {
+        if (executor == null || !req.isAsyncSupported() || !permits.tryAcquire()) {
+            handler.handle(req, resp);
+            return;
+        }
+        final GuardedResponse guarded = new GuardedResponse(resp);
+        AsyncContext async = req.startAsync(req, guarded);
+        async.setTimeout(TIMEOUT_MS);
+        async.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                guarded.abort("timed out after " + TIMEOUT_MS + " ms");
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                guarded.abort("failed: " + event.getThrowable());
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        try {
+            executor.execute(() -> {
+                try {
+                    handler.handle(req, guarded);
+                } catch (IOException | ServletException | RuntimeException e) {
+                    fail(req, guarded, e);
+                } finally {
+                    permits.release();
+                    complete(async);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // executor shut down while the context is stopping
+            permits.release();
+            try {
+                handler.handle(req, guarded);
+            } finally {
+                complete(async);
+            }
+        }
+    }
+
+    // After a timeout the container has already completed the request.
+    private static void complete(AsyncContext async) {
+        try {
+            async.complete();
+        } catch (IllegalStateException ignored) {
+        }
+    }
+
+    // The container only turns exceptions thrown on its own thread into an error page.
+    private static void fail(HttpServletRequest req, GuardedResponse resp, Exception e) {
+        System.out.println("Request " + req.getRequestURI() + " is failed: " + e);
+        if (resp.aborted == null && !resp.isCommitted()) {
+            try {
+                resp.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    public static boolean usesVirtualThreads() {
+        return executor != null;
+    }
+
+    public static void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    // Once the container has timed the request out (or it failed) it completes and recycles the
+    // response, so the handler's later writes fail here instead of reaching another request.
+    public static class GuardedResponse extends HttpServletResponseWrapper {
+        volatile String aborted = null;
+        private ServletOutputStream output;
+        private PrintWriter writer;
+
+        public GuardedResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        public void abort(String reason) {
+            aborted = reason;
+        }
+
+        void check() throws IOException {
+            String reason = aborted;
+            if (reason != null) {
+                throw new IOException("Request " + reason);
+            }
+        }
+
+        @Override
+        public synchronized ServletOutputStream getOutputStream() throws IOException {
+            check();
+            if (output == null) {
+                final ServletOutputStream out = super.getOutputStream();
+                output = new ServletOutputStream() {
+                    @Override
+                    public boolean isReady() {
+                        return aborted == null && out.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        out.setWriteListener(listener);
+                    }
+
+                    @Override
+                    public void write(int b) throws IOException {
+                        check();
+                        out.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        check();
+                        out.write(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        check();
+                        out.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        check();
+                        out.close();
+                    }
+                };
+            }
+            return output;
+        }
+
+        // PrintWriter swallows the IOException, so an aborted writer just drops what it is given.
+        @Override
+        public synchronized PrintWriter getWriter() throws IOException {
+            check();
+            if (writer == null) {
+                final PrintWriter out = super.getWriter();
+                writer = new PrintWriter(new Writer() {
+                    @Override
+                    public void write(char[] buffer, int off, int len) throws IOException {
+                        check();
+                        out.write(buffer, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        check();
+                        out.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        check();
+                        out.close();
+                    }
+                });
+            }
+            return writer;
+        }
+
+        @Override
+        public void sendError(int status) throws IOException {
+            check();
+            super.sendError(status);
+        }
+
+        @Override
+        public void sendError(int status, String message) throws IOException {
+            check();
+            super.sendError(status, message);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            check();
+            super.sendRedirect(location);
+        }
+    }
+}
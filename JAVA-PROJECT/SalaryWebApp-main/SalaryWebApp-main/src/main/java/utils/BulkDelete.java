@@ -0,0 +1,163 @@
+package utils;
+
+import metrics.QueryTimer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.TreeSet;
+
+// Deletes many users, jobs or relations in one transaction. Ids are de-duplicated, sorted (so
+// concurrent purges take row locks in the same order) and sent as IN lists of at most
+// salary.delete.batchSize ids; the full-size statement is prepared once and reused. Deleting a
+// user or a job deletes its salary_datas rows first. Either every batch is committed or none is.
+public class BulkDelete {
+    static final int BATCH_SIZE = Settings.getInt("salary.delete.batchSize", 500);
+
+    public static Result deleteUsers(Collection<Integer> ids) throws SQLException {
+        return run(ids, new String[]{"salary_datas", "user_id"}, new String[]{"users", "id"});
+    }
+
+    public static Result deleteJobs(Collection<Integer> ids) throws SQLException {
+        Result result = run(ids, new String[]{"salary_datas", "job_id"}, new String[]{"jobs", "job_id"});
+        if (result.getRows("jobs") > 0) {
+            JobsCache.changed();
+        }
+        return result;
+    }
+
+    public static Result deleteRelations(Collection<Integer> ids) throws SQLException {
+        return run(ids, new String[]{"salary_datas", "id"});
+    }
+
+    // Each step is {table, id column}; steps run in order for every batch.
+    private static Result run(Collection<Integer> ids, String[]... steps) throws SQLException {
+        Integer[] sorted = new TreeSet<>(ids).toArray(new Integer[0]);
+        Result result = new Result(sorted.length, steps);
+        if (sorted.length == 0) {
+            return result;
+        }
+        long start = System.nanoTime();
+        try (Connection connection = ConnectionPool.getConnection()) {
+            connection.setAutoCommit(false);
+            PreparedStatement[] full = new PreparedStatement[steps.length];
+            // one metrics series per step, whatever the length of the IN list
+            String[] labels = new String[steps.length];
+            for (int s = 0; s < steps.length; s++) {
+                labels[s] = "delete from " + steps[s][0] + " where " + steps[s][1] + " in (?)";
+            }
+            try {
+                for (int from = 0; from < sorted.length; from += BATCH_SIZE) {
+                    int size = Math.min(BATCH_SIZE, sorted.length - from);
+                    for (int s = 0; s < steps.length; s++) {
+                        PreparedStatement statement;
+                        if (size == BATCH_SIZE) {
+                            if (full[s] == null) {
+                                full[s] = connection.prepareStatement(sql(steps[s], size));
+                            }
+                            statement = full[s];
+                        } else {
+                            statement = connection.prepareStatement(sql(steps[s], size));
+                        }
+                        try (QueryTimer timer = QueryTimer.start(labels[s])) {
+                            for (int i = 0; i < size; i++) {
+                                statement.setInt(i + 1, sorted[from + i]);
+                            }
+                            int deleted = statement.executeUpdate();
+                            DBUtil.countQuery();
+                            timer.rows(deleted);
+                            result.rows[s] += deleted;
+                        } finally {
+                            if (statement != full[s]) {
+                                statement.close();
+                            }
+                        }
+                    }
+                    result.batches++;
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                for (PreparedStatement statement : full) {
+                    if (statement != null) {
+                        statement.close();
+                    }
+                }
+                connection.setAutoCommit(true);
+            }
+        }
+        result.millis = (System.nanoTime() - start) / 1000000;
+        if (result.getTotalRows() > 0) {
+            DataVersion.rewritten();
+        }
+        System.out.println("Bulk delete: " + result);
+        return result;
+    }
+
+    private static String sql(String[] step, int size) {
+        StringBuilder sql = new StringBuilder(32 + size * 2)
+                .append("delete from ").append(DBUtil.table(step[0])).append(" where ").append(step[1]).append(" in (");
+        for (int i = 0; i < size; i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        return sql.append(')').toString();
+    }
+
+    public static class Result {
+        private final int requested;
+        private final String[][] steps;
+        private final long[] rows;
+        private int batches = 0;
+        private long millis = 0;
+
+        Result(int requested, String[][] steps) {
+            this.requested = requested;
+            this.steps = steps;
+            this.rows = new long[steps.length];
+        }
+
+        // Distinct ids asked for.
+        public int getRequested() {
+            return requested;
+        }
+
+        // Rows deleted from the given table.
+        public long getRows(String table) {
+            long total = 0;
+            for (int s = 0; s < steps.length; s++) {
+                if (steps[s][0].equals(table)) {
+                    total += rows[s];
+                }
+            }
+            return total;
+        }
+
+        public long getTotalRows() {
+            long total = 0;
+            for (long count : rows) {
+                total += count;
+            }
+            return total;
+        }
+
+        public String toJson() {
+            StringBuilder json = new StringBuilder(128).append("{\"requested\":").append(requested).append(",\"deleted\":{");
+            for (int s = 0; s < steps.length; s++) {
+                json.append(s == 0 ? "\"" : ",\"").append(steps[s][0]).append("\":").append(rows[s]);
+            }
+            return json.append("},\"batches\":").append(batches).append(",\"elapsedMs\":").append(millis).append('}').toString();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder().append(requested).append(" ids, ");
+            for (int s = 0; s < steps.length; s++) {
+                text.append(rows[s]).append(' ').append(steps[s][0]).append(" rows, ");
+            }
+            return text.append(batches).append(" batches in ").append(millis).append(" ms").toString();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package utils;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ConnectionPool {
+    static final String URL = Settings.getString("salary.db.url", "jdbc:mysql://localhost:3306/job_salary");
+    static final String USER = Settings.getString("salary.db.user", "root");
+    static final String PASSWORD = Settings.getString("salary.db.password", "Password123#@!");
+    static final int POOL_SIZE = Settings.getInt("salary.db.poolSize", 10);
+    static final long ACQUIRE_TIMEOUT_MS = Settings.getLong("salary.db.acquireTimeoutMs", 5000);
+    static final int STATEMENT_CACHE_SIZE = Settings.getInt("salary.db.statementCacheSize", 250);
+    static final boolean SERVER_PREPARES = Settings.getBoolean("salary.db.serverPrepares", true);
+
+    private static final Object lock = new Object();
+    private static volatile HikariDataSource dataSource = null;
+
+    private static final AtomicLong acquireCount = new AtomicLong();
+    private static final AtomicLong acquireNanosTotal = new AtomicLong();
+    private static final AtomicLong acquireNanosMax = new AtomicLong();
+    private static final AtomicLong acquireTimeouts = new AtomicLong();
+
+    public static DataSource getDataSource() {
+        HikariDataSource ds = dataSource;
+        if (ds == null) {
+            synchronized (lock) {
+                ds = dataSource;
+                if (ds == null) {
+                    ds = new HikariDataSource(createConfig());
+                    dataSource = ds;
+                    System.out.println("Connection pool is started (" + POOL_SIZE + " connections)");
+                }
+            }
+        }
+        return ds;
+    }
+
+    private static HikariConfig createConfig() {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("salary-db");
+        config.setJdbcUrl(URL);
+        config.setUsername(USER);
+        config.setPassword(PASSWORD);
+        if (URL.startsWith("jdbc:mysql:")) {
+            config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+            // Connector/J keeps a prepared-statement cache per physical connection, so the
+            // fixed SQL strings in DBUtil are parsed (and prepared on the server) only once.
+            config.addDataSourceProperty("cachePrepStmts", String.valueOf(STATEMENT_CACHE_SIZE > 0));
+            config.addDataSourceProperty("prepStmtCacheSize", String.valueOf(STATEMENT_CACHE_SIZE));
+            config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            config.addDataSourceProperty("useServerPrepStmts", String.valueOf(SERVER_PREPARES));
+            // lets JDBC batches go out as multi-row inserts instead of one round trip per row
+            config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        }
+        config.setMaximumPoolSize(POOL_SIZE);
+        config.setMinimumIdle(POOL_SIZE);
+        config.setConnectionTimeout(ACQUIRE_TIMEOUT_MS);
+        return config;
+    }
+
+    // Borrows a connection for the current request; closing it hands it back to the pool.
+    public static Connection getConnection() throws SQLException {
+        DataSource ds = getDataSource();
+        long start = System.nanoTime();
+        try {
+            return ds.getConnection();
+        } catch (SQLTransientConnectionException e) {
+            acquireTimeouts.incrementAndGet();
+            throw e;
+        } finally {
+            recordAcquire(System.nanoTime() - start);
+        }
+    }
+
+    private static void recordAcquire(long nanos) {
+        acquireCount.incrementAndGet();
+        acquireNanosTotal.addAndGet(nanos);
+        long max = acquireNanosMax.get();
+        while (nanos > max && !acquireNanosMax.compareAndSet(max, nanos)) {
+            max = acquireNanosMax.get();
+        }
+    }
+
+    // Opens every connection of the pool up front so the first requests do not pay for the handshake.
+    public static void warmUp() {
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (int i = 0; i < POOL_SIZE; i++) {
+                Connection connection = getConnection();
+                connections.add(connection);
+                connection.isValid(1);
+            }
+            System.out.println("Connection pool is warmed up (" + connections.size() + " connections)");
+        } catch (SQLException e) {
+            System.out.println("Connection pool warm-up is failed: " + e.getMessage());
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException ignored) {
+                }
+            }
+        }
+    }
+
+    public static void shutdown() {
+        synchronized (lock) {
+            if (dataSource != null) {
+                dataSource.close();
+                dataSource = null;
+            }
+        }
+    }
+
+    public static long getAcquireCount() {
+        return acquireCount.get();
+    }
+
+    public static long getAcquireTimeouts() {
+        return acquireTimeouts.get();
+    }
+
+    public static double getAverageAcquireMillis() {
+        long count = acquireCount.get();
+        return count == 0 ? 0 : acquireNanosTotal.get() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public static double getMaxAcquireMillis() {
+        return acquireNanosMax.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public static String stats() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("poolSize=").append(POOL_SIZE);
+        HikariDataSource ds = dataSource;
+        if (ds != null) {
+            HikariPoolMXBean pool = ds.getHikariPoolMXBean();
+            if (pool != null) {
+                sb.append(", active=").append(pool.getActiveConnections())
+                        .append(", idle=").append(pool.getIdleConnections())
+                        .append(", waiting=").append(pool.getThreadsAwaitingConnection());
+            }
+        }
+        sb.append(", acquired=").append(getAcquireCount())
+                .append(", timeouts=").append(getAcquireTimeouts())
+                .append(", avgAcquireMs=").append(String.format("%.3f", getAverageAcquireMillis()))
+                .append(", maxAcquireMs=").append(String.format("%.3f", getMaxAcquireMillis()));
+        return sb.toString();
+    }
+}
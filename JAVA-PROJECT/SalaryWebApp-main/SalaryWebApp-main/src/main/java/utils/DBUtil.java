@@ -1,195 +1,238 @@
 package utils;
 
+import metrics.QueryTimer;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetFactory;
+import javax.sql.rowset.RowSetProvider;
 import java.sql.*;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DBUtil {
-    static Connection connection = null;
-    static Statement statement = null;
+    private static final Set<String> TABLES = new HashSet<>(Arrays.asList(
+            "members", "users", "jobs", "salary_datas", "salary_view"));
+
+    private static final int STREAMING_FETCH_SIZE = 1000;
+
+    private static RowSetFactory rowSetFactory = null;
+
+    private static final AtomicLong queryCount = new AtomicLong();
+
+    // Runs the query on a pooled connection and hands back a disconnected copy of the rows,
+    // so the connection is back in the pool before the servlet starts rendering.
+    public static ResultSet executeQuery (String query, Object... params) throws SQLException {
+        try (Connection connection = ConnectionPool.getConnection();
+             QueryTimer timer = QueryTimer.start(query);
+             PreparedStatement statement = prepare(connection, query, params);
+             ResultSet resultSet = statement.executeQuery()) {
+            countQuery();
+            CachedRowSet rows = getRowSetFactory().createCachedRowSet();
+            rows.populate(resultSet);
+            timer.rows(rows.size());
+            return rows;
+        }
+    }
 
-    public static void connect () {
-        try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            connection = DriverManager.getConnection(
-                    "jdbc:mysql://localhost:3306/job_salary", "root", "Password123#@!"
-            );
-            statement = connection.createStatement();
-            System.out.println("Connection is worked!");
-        } catch (SQLException | ClassNotFoundException e) {
-            System.out.println("Connection is failed");
-            throw new RuntimeException(e);
+    public static int executeUpdate (String query, Object... params) throws SQLException {
+        try (Connection connection = ConnectionPool.getConnection();
+             QueryTimer timer = QueryTimer.start(query);
+             PreparedStatement statement = prepare(connection, query, params)) {
+            int rows = statement.executeUpdate();
+            countQuery();
+            timer.rows(rows);
+            if (rows > 0 && query.regionMatches(true, 0, "insert", 0, 6)) {
+                DataVersion.changed();
+            } else if (rows > 0) {
+                DataVersion.rewritten();
+            }
+            return rows;
         }
     }
 
-    public static ResultSet selectUser (String username, String password) throws SQLException {
-        return statement.executeQuery("select * from members where username = '"+username+"' and password = '"+password+"'");
+    // Forward-only cursor that reads rows as the caller consumes them instead of buffering the
+    // whole result; Connector/J only streams when the fetch size is Integer.MIN_VALUE. Callers time
+    // it with a QueryTimer opened just before, counting rows as they read them.
+    public static PreparedStatement prepareStreaming (Connection connection, String query, Object... params) throws SQLException {
+        countQuery();
+        PreparedStatement statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(ConnectionPool.URL.startsWith("jdbc:mysql:") ? Integer.MIN_VALUE : STREAMING_FETCH_SIZE);
+        for (int i = 0; i < params.length; i++) {
+            statement.setObject(i + 1, params[i]);
+        }
+        return statement;
     }
 
-    public static ResultSet selectAll (String tableName) throws SQLException {
-        return statement.executeQuery("select * from "+tableName);
+    public static void countQuery () {
+        queryCount.incrementAndGet();
     }
 
-    public static boolean register (String tableName, String username, String password) {
-        String query = "insert into " + tableName + " (username, password, role) values ('"+ username + "', '" + password +"', 'user')";
-        System.out.println(query);
-        try {
-            if (statement.executeUpdate(query)>0) {
-                return true;
-            } else {
-                return false;
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
+    public static long getQueryCount () {
+        return queryCount.get();
+    }
+
+    // Values are always bound as parameters; only the SQL text itself is used as the cache key.
+    static PreparedStatement prepare (Connection connection, String query, Object... params) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(query);
+        for (int i = 0; i < params.length; i++) {
+            statement.setObject(i + 1, params[i]);
         }
+        return statement;
     }
 
-    public static boolean insertUser (String tableName, int age, String gender, String education_level, float years_of_experience, int salary) {
-        // create query
-//        String query = "insert into " + tableName + " values (" + id + ", " + age + ", '" + gender + "', '" + education_level + "', "+ years_of_experience +", "+ salary +")";
-        String query = "insert into " + tableName + " (age, gender, education_level, years_of_experience, salary) values (" + age + ", '" + gender + "', '" + education_level + "', "+ years_of_experience +", "+ salary +")";
+    // Table names cannot be bound, so they are checked against the known schema instead.
+    static String table (String tableName) {
+        if (!TABLES.contains(tableName)) {
+            throw new IllegalArgumentException("Unknown table: " + tableName);
+        }
+        return tableName;
+    }
+
+    private static boolean update (String query, Object... params) {
         try {
-            if (statement.executeUpdate(query) > 0) {
-                return true;
-            } else {
-                return false;
-            }
+            return executeUpdate(query, params) > 0;
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
+    }
 
+    private static boolean jobsChanged (boolean updated) {
+        if (updated) {
+            JobsCache.changed();
+        }
+        return updated;
     }
-    public static boolean insertJob (String tableName, String jobTitle) {
-        String query = "insert into " + tableName + " (job_title) values ('" + jobTitle + "')";
-        try {
-            if (statement.executeUpdate(query) > 0) {
-                return true;
-            } else {
-                return false;
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
+
+    private static RowSetFactory getRowSetFactory () throws SQLException {
+        if (rowSetFactory == null) {
+            rowSetFactory = RowSetProvider.newFactory();
         }
+        return rowSetFactory;
+    }
 
+    public static ResultSet selectUser (String username, String password) throws SQLException {
+        return executeQuery("select * from members where username = ? and password = ?", username, password);
     }
 
-    public static boolean insertRelation (String tableName, int id, int jobId) {
-        String query = "insert into " + tableName + " ( user_id, job_id )" + " values (" + id + ", " + jobId + ")";
-        try {
-            if (statement.executeUpdate(query)>0) {
-                return true;
-            } else {
-                return false;
+    // Login only needs the role, so it is read straight off the cursor without copying the row.
+    public static String selectRole (String username, String password) throws SQLException {
+        String query = "select role from members where username = ? and password = ?";
+        try (Connection connection = ConnectionPool.getConnection();
+             QueryTimer timer = QueryTimer.start(query);
+             PreparedStatement statement = prepare(connection, query, username, password);
+             ResultSet resultSet = statement.executeQuery()) {
+            countQuery();
+            if (!resultSet.next()) {
+                return null;
             }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
+            timer.row();
+            return resultSet.getString("role");
         }
     }
 
-    public static boolean update (String tableName, int id, int age, String gender, String education_level, float years_of_experience, int salary) {
-        String query = "update "+tableName+" set age = '" + age + "', gender = '" + gender + "', education_level = '" + education_level +"', years_of_experience = '"+ years_of_experience +"', salary = '"+ salary +"' where id = "+id;
-        System.out.println(query);
-        try {
-            if (statement.executeUpdate(query)>0) {
-                return true;
-            } else {
-                return false;
+    // Stored password hash and role of a member as {password, role}, or null for an unknown username.
+    public static String[] selectCredentials (String username) throws SQLException {
+        String query = "select password, role from members where username = ?";
+        try (Connection connection = ConnectionPool.getConnection();
+             QueryTimer timer = QueryTimer.start(query);
+             PreparedStatement statement = prepare(connection, query, username);
+             ResultSet resultSet = statement.executeQuery()) {
+            countQuery();
+            if (!resultSet.next()) {
+                return null;
             }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
+            timer.row();
+            return new String[]{resultSet.getString(1), resultSet.getString(2)};
         }
     }
 
-    public static boolean updateJob (String tableName, int id, String job_title) {
-        String query = "update "+tableName+" set job_title = '" + job_title +"' where job_id = "+id;
-        System.out.println(query);
-        try {
-            if (statement.executeUpdate(query)>0) {
-                return true;
-            } else {
-                return false;
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
+    // Only replaces the hash that was verified, so two concurrent logins rehash once. Member rows
+    // are not salary data, so DataVersion is left alone.
+    public static boolean updatePassword (String username, String oldPassword, String newPassword) throws SQLException {
+        String query = "update members set password = ? where username = ? and password = ?";
+        try (Connection connection = ConnectionPool.getConnection();
+             QueryTimer timer = QueryTimer.start(query);
+             PreparedStatement statement = prepare(connection, query, newPassword, username, oldPassword)) {
+            int rows = statement.executeUpdate();
+            countQuery();
+            timer.rows(rows);
+            return rows > 0;
         }
     }
 
+    public static ResultSet selectAll (String tableName) throws SQLException {
+        return executeQuery("select * from " + table(tableName));
+    }
+
+    public static boolean register (String tableName, String username, String password) {
+        String query = "insert into " + table(tableName) + " (username, password, role) values (?, ?, 'user')";
+        return update(query, username, password);
+    }
+
+    public static boolean insertUser (String tableName, int age, String gender, String education_level, float years_of_experience, int salary) {
+        String query = "insert into " + table(tableName) + " (age, gender, education_level, years_of_experience, salary) values (?, ?, ?, ?, ?)";
+        return update(query, age, gender, education_level, years_of_experience, salary);
+    }
+
+    public static boolean insertJob (String tableName, String jobTitle) {
+        String query = "insert into " + table(tableName) + " (job_title) values (?)";
+        return jobsChanged(update(query, jobTitle));
+    }
+
+    public static boolean insertRelation (String tableName, int id, int jobId) {
+        String query = "insert into " + table(tableName) + " (user_id, job_id) values (?, ?)";
+        return update(query, id, jobId);
+    }
+
+    public static boolean update (String tableName, int id, int age, String gender, String education_level, float years_of_experience, int salary) {
+        String query = "update " + table(tableName) + " set age = ?, gender = ?, education_level = ?, years_of_experience = ?, salary = ? where id = ?";
+        return update(query, age, gender, education_level, years_of_experience, salary, id);
+    }
+
+    public static boolean updateJob (String tableName, int id, String job_title) {
+        String query = "update " + table(tableName) + " set job_title = ? where job_id = ?";
+        return jobsChanged(update(query, job_title, id));
+    }
+
     public static boolean updateRelation (String tableName, int id, int user_id, int job_id) {
-        String query = "update "+tableName+" set user_id = '" + user_id +"', job_id = '"+ job_id+"' where id = "+id;
-        System.out.println(query);
-        try {
-            if (statement.executeUpdate(query)>0) {
-                return true;
-            } else {
-                return false;
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+        String query = "update " + table(tableName) + " set user_id = ?, job_id = ? where id = ?";
+        return update(query, user_id, job_id, id);
     }
 
+    // Deletes the user and its salary_datas rows in one transaction.
     public static boolean delete (String tableName1, String tableName2,  int id) {
-        String query = "DELETE " + tableName1 + ", "+ tableName2 + " from "+ tableName1 +
-                " JOIN "+ tableName2 +" ON salary_datas.user_id = users.id where users.id = " + id;
-        System.out.println(query);
+        table(tableName1);
+        table(tableName2);
         try {
-            if (statement.executeUpdate(query)>0) {
-                return true;
-            } else {
-                return false;
-            }
+            return BulkDelete.deleteUsers(Collections.singletonList(id)).getTotalRows() > 0;
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
     public static boolean deleteUser (String tableName1,  int id) {
-        String query = "DELETE from "+ tableName1 + " where id = " + id;
-        System.out.println(query);
-        try {
-            if (statement.executeUpdate(query)>0) {
-                return true;
-            } else {
-                return false;
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+        String query = "DELETE from " + table(tableName1) + " where id = ?";
+        return update(query, id);
     }
+
     public static boolean deleteJob (String tableName1,  int id) {
-        String query = "DELETE from "+ tableName1 + " where job_id = " + id;
-        System.out.println(query);
-        try {
-            if (statement.executeUpdate(query)>0) {
-                return true;
-            } else {
-                return false;
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+        String query = "DELETE from " + table(tableName1) + " where job_id = ?";
+        return jobsChanged(update(query, id));
     }
 
     public static boolean deleteRelation (String tableName1,  int id) {
-        String query = "DELETE from "+ tableName1 + " where id = " + id;
-        System.out.println(query);
-        try {
-            if (statement.executeUpdate(query)>0) {
-                return true;
-            } else {
-                return false;
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+        String query = "DELETE from " + table(tableName1) + " where id = ?";
+        return update(query, id);
     }
 
     public static boolean findId (String tableName, int id) {
-        String query = "select * from " + tableName + " where = "+id;
-        try {
-            if (statement.executeUpdate(query)>0) {
-                return true;
-            } else {
-                return false;
-            }
+        String idColumn = tableName.equals("jobs") ? "job_id" : "id";
+        String query = "select * from " + table(tableName) + " where " + idColumn + " = ?";
+        try (ResultSet resultSet = executeQuery(query, id)) {
+            return resultSet.next();
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
@@ -0,0 +1,30 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Change counter for the job_salary tables. Every write through DBUtil (or the CSV importer)
+// bumps it, so caches can tell whether what they hold is still current. Updates and deletes also
+// bump a second counter, for readers that can absorb appended rows but not rewritten ones.
+public class DataVersion {
+    private static final AtomicLong version = new AtomicLong();
+    private static final AtomicLong rewrites = new AtomicLong();
+
+    public static long get() {
+        return version.get();
+    }
+
+    public static long getRewrites() {
+        return rewrites.get();
+    }
+
+    // Rows were inserted.
+    public static long changed() {
+        return version.incrementAndGet();
+    }
+
+    // Existing rows were updated or deleted.
+    public static long rewritten() {
+        rewrites.incrementAndGet();
+        return version.incrementAndGet();
+    }
+}
@@ -0,0 +1,39 @@
+package utils;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.annotation.WebListener;
+import schema.IndexCheck;
+import schema.SchemaMigrator;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+@WebListener
+public class DatabaseListener implements ServletContextListener {
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        ConnectionPool.warmUp();
+        System.out.println("Blocking request work runs on " + (Blocking.usesVirtualThreads() ? "virtual threads" : "container threads"));
+        if (SchemaMigrator.ENABLED) {
+            try {
+                SchemaMigrator.migrate();
+                IndexCheck.run();
+            } catch (SQLException | IOException e) {
+                System.out.println("Schema migration is failed: " + e.getMessage());
+            }
+        }
+        try {
+            JobsCache.refresh();
+        } catch (SQLException e) {
+            System.out.println("Jobs cache not loaded at startup: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        Blocking.shutdown();
+        System.out.println(ConnectionPool.stats());
+        ConnectionPool.shutdown();
+    }
+}
@@ -0,0 +1,122 @@
+package utils;
+
+import metrics.QueryTimer;
+import template.HtmlOutput;
+import template.Pages;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+// Application-wide copy of the jobs table. Readers take the current snapshot from a volatile
+// field without locking; job writes in DBUtil (and the CSV importer) replace it with a fresh one.
+public class JobsCache {
+    private static volatile Jobs jobs = null;
+
+    public static Jobs get() throws SQLException {
+        Jobs current = jobs;
+        return current != null ? current : refresh();
+    }
+
+    // null until the first load and after invalidate()
+    static Jobs cached() {
+        return jobs;
+    }
+
+    public static synchronized Jobs refresh() throws SQLException {
+        int[] ids = new int[64];
+        String[] titles = new String[64];
+        int n = 0;
+        String query = "select job_id, job_title from jobs order by job_id";
+        try (Connection connection = ConnectionPool.getConnection();
+             QueryTimer timer = QueryTimer.start(query);
+             PreparedStatement statement = DBUtil.prepare(connection, query);
+             ResultSet rs = statement.executeQuery()) {
+            DBUtil.countQuery();
+            while (rs.next()) {
+                if (n == ids.length) {
+                    ids = Arrays.copyOf(ids, n * 2);
+                    titles = Arrays.copyOf(titles, n * 2);
+                }
+                ids[n] = rs.getInt(1);
+                titles[n] = rs.getString(2);
+                n++;
+            }
+            timer.rows(n);
+        }
+        Jobs loaded = new Jobs(Arrays.copyOf(ids, n), Arrays.copyOf(titles, n));
+        jobs = loaded;
+        return loaded;
+    }
+
+    // Called after a job write; if the reload fails the next reader loads it instead.
+    static void changed() {
+        try {
+            refresh();
+        } catch (SQLException e) {
+            System.out.println("Jobs cache refresh failed: " + e.getMessage());
+            invalidate();
+        }
+    }
+
+    public static void invalidate() {
+        jobs = null;
+    }
+
+    // Sorted by job_id; the arrays are never modified after construction. The unselected
+    // <option> list is rendered once here so pages can copy it as bytes.
+    public static final class Jobs {
+        private final int[] ids;
+        private final String[] titles;
+        private final byte[] options;
+
+        Jobs(int[] ids, String[] titles) {
+            this.ids = ids;
+            this.titles = titles;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try {
+                HtmlOutput out = new HtmlOutput(bytes);
+                writeOptions(out, ids, titles, -1);
+                out.flush();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            this.options = bytes.toByteArray();
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        public int getId(int index) {
+            return ids[index];
+        }
+
+        public String getTitle(int index) {
+            return titles[index];
+        }
+
+        public String titleOf(int jobId) {
+            int index = Arrays.binarySearch(ids, jobId);
+            return index >= 0 ? titles[index] : null;
+        }
+
+        public void writeOptions(HtmlOutput out, int selected) throws IOException {
+            if (Arrays.binarySearch(ids, selected) < 0) {
+                out.write(options);
+            } else {
+                writeOptions(out, ids, titles, selected);
+            }
+        }
+
+        private static void writeOptions(HtmlOutput out, int[] ids, String[] titles, int selected) throws IOException {
+            for (int i = 0; i < ids.length; i++) {
+                Pages.option(out, ids[i], titles[i], ids[i] == selected);
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package utils;
+
+public class Json {
+    public static StringBuilder appendString(StringBuilder sb, String value) {
+        if (value == null) {
+            return sb.append("null");
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                case '<': sb.append("\\u003c"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"');
+    }
+
+    public static StringBuilder appendValue(StringBuilder sb, Object value) {
+        if (value == null) {
+            return sb.append("null");
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return sb.append(value);
+        }
+        return appendString(sb, value.toString());
+    }
+}
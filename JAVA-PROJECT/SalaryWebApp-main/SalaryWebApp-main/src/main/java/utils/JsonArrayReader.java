@@ -0,0 +1,176 @@
+package utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+// Streaming reader for a JSON array of flat objects ([{"a":1,"b":"x"}, ...]) that holds only the
+// current object in memory. Values are returned as their text; nested arrays and objects are not
+// supported.
+public class JsonArrayReader {
+    private final Reader reader;
+    private final char[] buffer = new char[64 * 1024];
+    private int position = 0;
+    private int limit = 0;
+    private final Map<String, String> object = new HashMap<>();
+    private final StringBuilder text = new StringBuilder(64);
+    private boolean started = false;
+    private boolean first = false;
+    private boolean finished = false;
+
+    public JsonArrayReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    // Reads up to the first element, so a body that is not an array fails before any output;
+    // next() calls it if the caller did not.
+    public void start() throws IOException {
+        if (started) {
+            return;
+        }
+        if (skipWhitespace() != '[') {
+            throw new IOException("Expected a JSON array");
+        }
+        started = true;
+        if (skipWhitespace() == ']') {
+            finished = true;
+        } else {
+            position--;
+            first = true;
+        }
+    }
+
+    // Returns the fields of the next object (null values map to null), or null after the last one.
+    // The returned map is reused by the next call.
+    public Map<String, String> next() throws IOException {
+        start();
+        if (finished) {
+            return null;
+        }
+        int c = skipWhitespace();
+        if (first) {
+            first = false;
+        } else if (c == ']') {
+            finished = true;
+            return null;
+        } else if (c == ',') {
+            c = skipWhitespace();
+        } else {
+            throw new IOException("Expected ',' or ']' between array elements");
+        }
+        if (c != '{') {
+            throw new IOException("Expected a JSON object");
+        }
+        object.clear();
+        c = skipWhitespace();
+        if (c == '}') {
+            return object;
+        }
+        while (true) {
+            if (c != '"') {
+                throw new IOException("Expected a field name");
+            }
+            String name = readString();
+            if (skipWhitespace() != ':') {
+                throw new IOException("Expected ':' after \"" + name + "\"");
+            }
+            object.put(name, readValue(skipWhitespace()));
+            c = skipWhitespace();
+            if (c == '}') {
+                return object;
+            }
+            if (c != ',') {
+                throw new IOException("Expected ',' or '}' in object");
+            }
+            c = skipWhitespace();
+        }
+    }
+
+    private String readValue(int c) throws IOException {
+        if (c == '"') {
+            return readString();
+        }
+        if (c == '{' || c == '[') {
+            throw new IOException("Nested values are not supported");
+        }
+        text.setLength(0);
+        while (c >= 0 && c != ',' && c != '}' && c != ']' && !Character.isWhitespace(c)) {
+            text.append((char) c);
+            c = read();
+        }
+        if (c >= 0) {
+            position--;
+        }
+        String value = text.toString();
+        if (value.isEmpty()) {
+            throw new IOException("Expected a value");
+        }
+        return value.equals("null") ? null : value;
+    }
+
+    // Called after the opening quote.
+    private String readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                throw new IOException("Unterminated string");
+            }
+            if (c == '"') {
+                return text.toString();
+            }
+            if (c == '\\') {
+                c = read();
+                switch (c) {
+                    case '"': text.append('"'); break;
+                    case '\\': text.append('\\'); break;
+                    case '/': text.append('/'); break;
+                    case 'b': text.append('\b'); break;
+                    case 'f': text.append('\f'); break;
+                    case 'n': text.append('\n'); break;
+                    case 'r': text.append('\r'); break;
+                    case 't': text.append('\t'); break;
+                    case 'u':
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(read(), 16);
+                            if (digit < 0) {
+                                throw new IOException("Bad \\u escape");
+                            }
+                            code = code * 16 + digit;
+                        }
+                        text.append((char) code);
+                        break;
+                    default:
+                        throw new IOException("Bad escape");
+                }
+            } else {
+                text.append((char) c);
+            }
+        }
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c = read();
+        while (c >= 0 && Character.isWhitespace(c)) {
+            c = read();
+        }
+        if (c < 0) {
+            throw new IOException("Unexpected end of JSON");
+        }
+        return c;
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+}
@@ -0,0 +1,261 @@
+package utils;
+
+import metrics.QueryTimer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Server-side paging, sorting and filtering for the listing pages.
+//
+// Pages are fetched by keyset ("seek") on (sort column, id): when the previous page was served,
+// the key of its last row is remembered and the next page starts from there. Every sortable column
+// has a (column, id) index (V5__listing_sort_indexes.sql), so without a search that is a range scan
+// and paging forward costs O(page size). NULLs sort first ascending and last descending, as in
+// MySQL, and the seek follows that order. A jump to an arbitrary page falls back to OFFSET. A search
+// ORs one indexed condition per column, which MySQL answers with an index merge and a sort of the
+// matches, so a filtered page costs O(matches) rather than O(page size).
+// Total and filtered counts are cached until DataVersion changes.
+public class PagedTable {
+    public static final PagedTable USERS = new PagedTable("users", "id",
+            new String[]{"id", "age", "gender", "education_level", "years_of_experience", "salary"},
+            new boolean[]{false, false, true, true, false, false});
+    public static final PagedTable JOBS = new PagedTable("jobs", "job_id",
+            new String[]{"job_id", "job_title"},
+            new boolean[]{false, true});
+    public static final PagedTable RELATIONS = new PagedTable("salary_datas", "id",
+            new String[]{"id", "user_id", "job_id"},
+            new boolean[]{false, false, false});
+
+    static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_CACHED_KEYS = 1024;
+
+    private final String tableName;
+    private final String idColumn;
+    private final String[] columns;
+    private final boolean[] textColumns;
+    private final String selectList;
+
+    private final LinkedHashMap<String, CachedValue> cache = new LinkedHashMap<String, CachedValue>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedValue> eldest) {
+            return size() > MAX_CACHED_KEYS;
+        }
+    };
+
+    private PagedTable(String tableName, String idColumn, String[] columns, boolean[] textColumns) {
+        this.tableName = DBUtil.table(tableName);
+        this.idColumn = idColumn;
+        this.columns = columns;
+        this.textColumns = textColumns;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < columns.length; i++) {
+            sb.append(i == 0 ? "" : ", ").append(columns[i]);
+        }
+        this.selectList = sb.toString();
+    }
+
+    public static PagedTable forName(String name) {
+        if ("users".equals(name)) {
+            return USERS;
+        }
+        if ("jobs".equals(name)) {
+            return JOBS;
+        }
+        if ("relations".equals(name) || "salary_datas".equals(name)) {
+            return RELATIONS;
+        }
+        throw new IllegalArgumentException("Unknown table: " + name);
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    // sortColumn indexes the columns above; search matches text columns by prefix and numeric
+    // columns by equality, so both can use an index.
+    public Page fetch(int sortColumn, boolean descending, String search, int start, int length) throws SQLException {
+        if (sortColumn < 0 || sortColumn >= columns.length) {
+            sortColumn = 0;
+        }
+        length = Math.max(1, Math.min(length, MAX_PAGE_SIZE));
+        start = Math.max(0, start);
+        search = search == null ? "" : search.trim();
+        long version = DataVersion.get();
+
+        List<Object> params = new ArrayList<>();
+        String filter = filter(search, params);
+        String sort = columns[sortColumn];
+        boolean sortById = sort.equals(idColumn);
+        String direction = descending ? " desc" : " asc";
+        String keyPrefix = sortColumn + (descending ? "d" : "a") + "|" + search + "|";
+
+        StringBuilder sql = new StringBuilder("select ").append(selectList).append(" from ").append(tableName);
+        Object[] after = start == 0 ? null : (Object[]) cached(keyPrefix + start, version);
+        if (after != null) {
+            String op = descending ? " < " : " > ";
+            sql.append(" where ");
+            if (filter != null) {
+                sql.append('(').append(filter).append(") and ");
+            }
+            if (sortById) {
+                sql.append(idColumn).append(op).append('?');
+                params.add(after[1]);
+            } else if (after[0] == null) {
+                // inside the NULL run: the rest of it, then (ascending) every non-NULL value
+                sql.append("((").append(sort).append(" is null and ").append(idColumn).append(op).append("?)");
+                sql.append(descending ? ")" : " or " + sort + " is not null)");
+                params.add(after[1]);
+            } else {
+                sql.append('(').append(sort).append(op).append("? or (").append(sort).append(" = ? and ")
+                        .append(idColumn).append(op).append("?)");
+                // descending, the NULL run comes after every value
+                sql.append(descending ? " or " + sort + " is null)" : ")");
+                params.add(after[0]);
+                params.add(after[0]);
+                params.add(after[1]);
+            }
+        } else if (filter != null) {
+            sql.append(" where ").append(filter);
+        }
+        sql.append(" order by ").append(sort).append(direction);
+        if (!sortById) {
+            sql.append(", ").append(idColumn).append(direction);
+        }
+        sql.append(" limit ?");
+        params.add(length);
+        if (after == null && start > 0) {
+            sql.append(" offset ?");
+            params.add(start);
+        }
+
+        List<Object[]> rows = new ArrayList<>(length);
+        String query = sql.toString();
+        try (Connection connection = ConnectionPool.getConnection();
+             QueryTimer timer = QueryTimer.start(query);
+             PreparedStatement statement = DBUtil.prepare(connection, query, params.toArray());
+             ResultSet rs = statement.executeQuery()) {
+            DBUtil.countQuery();
+            int idIndex = indexOf(idColumn);
+            while (rs.next()) {
+                Object[] row = new Object[columns.length];
+                for (int i = 0; i < columns.length; i++) {
+                    row[i] = rs.getObject(i + 1);
+                }
+                rows.add(row);
+            }
+            timer.rows(rows.size());
+            if (!rows.isEmpty()) {
+                Object[] last = rows.get(rows.size() - 1);
+                put(keyPrefix + (start + rows.size()), new Object[]{last[sortColumn], last[idIndex]}, version);
+            }
+        }
+
+        long total = count(null, version);
+        long filtered = search.isEmpty() ? total : count(search, version);
+        return new Page(rows, total, filtered);
+    }
+
+    private String filter(String search, List<Object> params) {
+        if (search.isEmpty()) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        Long number = parseLong(search);
+        for (int i = 0; i < columns.length; i++) {
+            if (textColumns[i]) {
+                sb.append(sb.length() == 0 ? "" : " or ").append(columns[i]).append(" like ?");
+                params.add(search.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+            } else if (number != null) {
+                sb.append(sb.length() == 0 ? "" : " or ").append(columns[i]).append(" = ?");
+                params.add(number);
+            }
+        }
+        return sb.length() == 0 ? "1 = 0" : sb.toString();
+    }
+
+    private long count(String search, long version) throws SQLException {
+        String key = "count|" + (search == null ? "" : search);
+        Long cachedCount = (Long) cached(key, version);
+        if (cachedCount != null) {
+            return cachedCount;
+        }
+        List<Object> params = new ArrayList<>();
+        String sql = "select count(*) from " + tableName;
+        if (search != null) {
+            sql += " where " + filter(search, params);
+        }
+        long count;
+        try (ResultSet rs = DBUtil.executeQuery(sql, params.toArray())) {
+            rs.next();
+            count = rs.getLong(1);
+        }
+        put(key, count, version);
+        return count;
+    }
+
+    private synchronized Object cached(String key, long version) {
+        CachedValue value = cache.get(key);
+        return value != null && value.version == version ? value.value : null;
+    }
+
+    private synchronized void put(String key, Object value, long version) {
+        cache.put(key, new CachedValue(value, version));
+    }
+
+    private int indexOf(String column) {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].equals(column)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException(column);
+    }
+
+    private static Long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public static class Page {
+        private final List<Object[]> rows;
+        private final long total;
+        private final long filtered;
+
+        Page(List<Object[]> rows, long total, long filtered) {
+            this.rows = rows;
+            this.total = total;
+            this.filtered = filtered;
+        }
+
+        public List<Object[]> getRows() {
+            return rows;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public long getFiltered() {
+            return filtered;
+        }
+    }
+
+    private static class CachedValue {
+        final Object value;
+        final long version;
+
+        CachedValue(Object value, long version) {
+            this.value = value;
+            this.version = version;
+        }
+    }
+}
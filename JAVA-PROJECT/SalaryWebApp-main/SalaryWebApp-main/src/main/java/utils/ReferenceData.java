@@ -0,0 +1,79 @@
+package utils;
+
+import metrics.QueryTimer;
+import template.HtmlOutput;
+import template.Pages;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+// User ids for the relation forms, read once per request, plus the shared jobs snapshot,
+// so the dropdowns are rendered from arrays instead of re-querying per option. getQueries() is
+// the number of round trips the load took: one, or two when the jobs snapshot had to be read.
+public class ReferenceData {
+    private final int[] userIds;
+    private final JobsCache.Jobs jobs;
+    private final int queries;
+
+    public ReferenceData (int[] userIds, JobsCache.Jobs jobs) {
+        this(userIds, jobs, 0);
+    }
+
+    private ReferenceData (int[] userIds, JobsCache.Jobs jobs, int queries) {
+        this.userIds = userIds;
+        this.jobs = jobs;
+        this.queries = queries;
+    }
+
+    public static ReferenceData load () throws SQLException {
+        int[] userIds = new int[64];
+        int users = 0;
+        String query = "select id from users order by id";
+        try (Connection connection = ConnectionPool.getConnection();
+             QueryTimer timer = QueryTimer.start(query);
+             PreparedStatement statement = DBUtil.prepare(connection, query);
+             ResultSet rs = statement.executeQuery()) {
+            DBUtil.countQuery();
+            while (rs.next()) {
+                if (users == userIds.length) {
+                    userIds = Arrays.copyOf(userIds, users * 2);
+                }
+                userIds[users++] = rs.getInt(1);
+            }
+            timer.rows(users);
+        }
+        JobsCache.Jobs jobs = JobsCache.cached();
+        int queries = 1;
+        if (jobs == null) {
+            jobs = JobsCache.refresh();
+            queries++;
+        }
+        return new ReferenceData(Arrays.copyOf(userIds, users), jobs, queries);
+    }
+
+    public int getQueries () {
+        return queries;
+    }
+
+    public int[] getUserIds () {
+        return userIds;
+    }
+
+    public JobsCache.Jobs getJobs () {
+        return jobs;
+    }
+
+    public void writeUserOptions (HtmlOutput out, int selected) throws IOException {
+        for (int userId : userIds) {
+            Pages.option(out, userId, userId == selected);
+        }
+    }
+
+    public void writeJobOptions (HtmlOutput out, int selected) throws IOException {
+        jobs.writeOptions(out, selected);
+    }
+}
@@ -0,0 +1,300 @@
+package utils;
+
+import metrics.QueryTimer;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Loads a salary CSV (the SalaryData.csv layout or the /exportCSV layout) into users, jobs and
+// salary_datas. The upload is parsed as a stream and written with JDBC batches, one transaction
+// per chunk, so memory use stays flat for any file size. A failure part way through therefore
+// leaves the chunks before it imported: the error names the line it stopped at and the last line
+// that was committed, so the rest of the file can be uploaded on its own.
+public class SalaryCsvImporter {
+    static final int BATCH_SIZE = Settings.getInt("salary.import.batchSize", 1000);
+    private static final String INSERT_USER = "insert into users (age, gender, education_level, years_of_experience, salary) values (?, ?, ?, ?, ?)";
+    private static final String INSERT_RELATION = "insert into salary_datas (user_id, job_id) values (?, ?)";
+
+    // One import at a time: they would race to create the same new jobs, and getLastProgress()
+    // could only report one of them.
+    private static final AtomicBoolean running = new AtomicBoolean();
+    private static volatile Progress lastProgress = null;
+
+    public static Progress getLastProgress() {
+        return lastProgress;
+    }
+
+    public static Progress importCsv(InputStream input, long totalBytes) throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            throw new AlreadyRunningException();
+        }
+        Progress progress = new Progress(totalBytes);
+        lastProgress = progress;
+        try {
+            run(new CountingInputStream(input, progress), progress);
+        } catch (IOException | SQLException e) {
+            progress.error = "Import stopped at line " + progress.failedLine + ": " + e.getMessage() + ". "
+                    + progress.rowsImported + " rows were imported, through line " + progress.committedLine;
+            throw new IOException(progress.error, e);
+        } catch (RuntimeException e) {
+            progress.error = e.getMessage();
+            throw e;
+        } finally {
+            progress.finishedAt = System.currentTimeMillis();
+            if (progress.jobsCreated > 0) {
+                JobsCache.invalidate();
+            }
+            running.set(false);
+        }
+        System.out.println("CSV import: " + progress);
+        return progress;
+    }
+
+    private static void run(InputStream input, Progress progress) throws IOException, SQLException {
+        CsvReader csv = new CsvReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<String> header = next(csv, progress);
+        if (header == null) {
+            return;
+        }
+        int age = -1, gender = -1, education = -1, experience = -1, job = -1, salary = -1;
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT).replace(' ', '_');
+            switch (name) {
+                case "age": age = i; break;
+                case "gender": gender = i; break;
+                case "education_level": education = i; break;
+                case "years_of_experience": experience = i; break;
+                case "job_title": job = i; break;
+                case "salary": salary = i; break;
+                default: break;
+            }
+        }
+        if (age < 0 || gender < 0 || education < 0 || experience < 0 || job < 0 || salary < 0) {
+            throw new IOException("CSV header must contain Age, Gender, Education Level, Years of Experience, Job Title and Salary");
+        }
+
+        try (Connection connection = ConnectionPool.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insertUser = connection.prepareStatement(INSERT_USER, Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement insertRelation = connection.prepareStatement(INSERT_RELATION);
+                 PreparedStatement insertJob = connection.prepareStatement(
+                         "insert into jobs (job_title) values (?)", Statement.RETURN_GENERATED_KEYS)) {
+                Map<String, Integer> jobIds = loadJobIds(connection);
+                int[] chunkJobIds = new int[BATCH_SIZE];
+                int chunk = 0;
+                List<String> record;
+                while ((record = next(csv, progress)) != null) {
+                    if (record.size() <= Math.max(Math.max(Math.max(age, gender), Math.max(education, experience)), Math.max(job, salary))) {
+                        progress.rowsSkipped++;
+                        continue;
+                    }
+                    String jobTitle = record.get(job).trim();
+                    try {
+                        insertUser.setInt(1, Integer.parseInt(record.get(age).trim()));
+                        insertUser.setString(2, record.get(gender).trim());
+                        insertUser.setString(3, record.get(education).trim());
+                        insertUser.setFloat(4, Float.parseFloat(record.get(experience).trim()));
+                        insertUser.setInt(5, (int) Double.parseDouble(record.get(salary).trim()));
+                    } catch (NumberFormatException e) {
+                        progress.rowsSkipped++;
+                        continue;
+                    }
+                    if (jobTitle.isEmpty()) {
+                        progress.rowsSkipped++;
+                        continue;
+                    }
+                    Integer jobId = jobIds.get(jobTitle);
+                    if (jobId == null) {
+                        jobId = insertJob(insertJob, jobTitle);
+                        jobIds.put(jobTitle, jobId);
+                        progress.jobsCreated++;
+                    }
+                    insertUser.addBatch();
+                    chunkJobIds[chunk++] = jobId;
+                    if (chunk == BATCH_SIZE) {
+                        flush(connection, insertUser, insertRelation, chunkJobIds, chunk, progress);
+                        progress.committedLine = csv.getLine();
+                        chunk = 0;
+                    }
+                }
+                if (chunk > 0) {
+                    flush(connection, insertUser, insertRelation, chunkJobIds, chunk, progress);
+                }
+                progress.committedLine = csv.getLine();
+                connection.commit();
+            } catch (SQLException | IOException | RuntimeException e) {
+                // only the chunk in flight; setAutoCommit(true) below would commit it otherwise
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static List<String> next(CsvReader csv, Progress progress) throws IOException {
+        progress.failedLine = csv.getLine() + 1;
+        List<String> record = csv.next();
+        progress.failedLine = csv.getLine();
+        return record;
+    }
+
+    // Writes one chunk: the user rows first, then one salary_datas row per generated user id.
+    private static void flush(Connection connection, PreparedStatement insertUser, PreparedStatement insertRelation,
+                              int[] chunkJobIds, int chunk, Progress progress) throws SQLException {
+        try (QueryTimer timer = QueryTimer.start(INSERT_USER)) {
+            insertUser.executeBatch();
+            DBUtil.countQuery();
+            timer.rows(chunk);
+        }
+        int i = 0;
+        try (ResultSet keys = insertUser.getGeneratedKeys()) {
+            while (keys.next() && i < chunk) {
+                insertRelation.setInt(1, keys.getInt(1));
+                insertRelation.setInt(2, chunkJobIds[i++]);
+                insertRelation.addBatch();
+            }
+        }
+        if (i != chunk) {
+            throw new SQLException("Expected " + chunk + " generated user ids, got " + i);
+        }
+        try (QueryTimer timer = QueryTimer.start(INSERT_RELATION)) {
+            insertRelation.executeBatch();
+            DBUtil.countQuery();
+            timer.rows(chunk);
+        }
+        connection.commit();
+        DataVersion.changed();
+        progress.rowsImported += chunk;
+    }
+
+    private static Map<String, Integer> loadJobIds(Connection connection) throws SQLException {
+        Map<String, Integer> jobIds = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select job_id, job_title from jobs")) {
+            while (rs.next()) {
+                jobIds.put(rs.getString(2), rs.getInt(1));
+            }
+        }
+        return jobIds;
+    }
+
+    private static int insertJob(PreparedStatement insertJob, String jobTitle) throws SQLException {
+        insertJob.setString(1, jobTitle);
+        insertJob.executeUpdate();
+        try (ResultSet keys = insertJob.getGeneratedKeys()) {
+            if (!keys.next()) {
+                throw new SQLException("No job_id generated for " + jobTitle);
+            }
+            return keys.getInt(1);
+        }
+    }
+
+    public static class AlreadyRunningException extends IOException {
+        AlreadyRunningException() {
+            super("Another CSV import is running, try again when it has finished");
+        }
+    }
+
+    public static class Progress {
+        private final long totalBytes;
+        private final long startedAt = System.currentTimeMillis();
+        private volatile long bytesRead = 0;
+        private volatile long rowsImported = 0;
+        private volatile long rowsSkipped = 0;
+        private volatile long jobsCreated = 0;
+        // the line being read or written, and the last line whose rows are committed
+        private volatile long failedLine = 0;
+        private volatile long committedLine = 0;
+        private volatile long finishedAt = 0;
+        private volatile String error = null;
+
+        Progress(long totalBytes) {
+            this.totalBytes = totalBytes;
+        }
+
+        public boolean isRunning() {
+            return finishedAt == 0;
+        }
+
+        public long getRowsImported() {
+            return rowsImported;
+        }
+
+        public long getRowsSkipped() {
+            return rowsSkipped;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public int getPercent() {
+            if (!isRunning()) {
+                return 100;
+            }
+            return totalBytes <= 0 ? 0 : (int) Math.min(99, bytesRead * 100 / totalBytes);
+        }
+
+        public String toJson() {
+            return "{\"running\":" + isRunning()
+                    + ",\"percent\":" + getPercent()
+                    + ",\"bytesRead\":" + bytesRead
+                    + ",\"totalBytes\":" + totalBytes
+                    + ",\"rowsImported\":" + rowsImported
+                    + ",\"rowsSkipped\":" + rowsSkipped
+                    + ",\"jobsCreated\":" + jobsCreated
+                    + ",\"committedLine\":" + committedLine
+                    + ",\"elapsedMs\":" + ((isRunning() ? System.currentTimeMillis() : finishedAt) - startedAt)
+                    + ",\"error\":" + (error == null ? "null" : "\"" + error.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n").replace("\r", "\\r") + "\"")
+                    + "}";
+        }
+
+        @Override
+        public String toString() {
+            long millis = Math.max(1, (isRunning() ? System.currentTimeMillis() : finishedAt) - startedAt);
+            return rowsImported + " rows imported, " + rowsSkipped + " skipped, " + jobsCreated + " new jobs in "
+                    + millis + " ms (" + rowsImported * 1000 / millis + " rows/s)";
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private final Progress progress;
+
+        CountingInputStream(InputStream in, Progress progress) {
+            super(in);
+            this.progress = progress;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                progress.bytesRead++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                progress.bytesRead += n;
+            }
+            return n;
+        }
+    }
+}
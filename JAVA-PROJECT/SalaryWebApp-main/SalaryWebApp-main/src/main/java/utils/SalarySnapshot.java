@@ -0,0 +1,372 @@
+package utils;
+
+import metrics.QueryTimer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// salary_view dumped to a columnar file and read back through memory-mapped buffers, so model
+// training and the statistics scan whole columns from the page cache instead of pulling rows
+// through JDBC. Gender, education level and job title are stored as codes into small
+// dictionaries kept in the header; rows are in salary_datas.id order.
+//
+// Layout, little-endian: magic, format, data version, rows, then the gender, education and job
+// dictionaries (strings are a length, -1 for null, and UTF-8 bytes; a job entry is its job_id and
+// title), padded to 8 bytes; then the columns one after another: id, age, salary and job code as
+// int[rows], years_of_experience as float[rows], gender and education code as byte[rows] (-1 for
+// null).
+public final class SalarySnapshot {
+    public static final boolean ENABLED = Settings.getBoolean("salary.snapshot.enabled", true);
+    static final String FILE = Settings.getString("salary.snapshot.file",
+            Paths.get(System.getProperty("java.io.tmpdir"), "salary_view.col").toString());
+
+    static final int MAGIC = 0x53565731; // "SVW1"
+    static final int FORMAT = 1;
+
+    static final String QUERY = "select salary_datas.id, users.age, users.gender, users.education_level, "
+            + "users.years_of_experience, salary_datas.job_id, jobs.job_title, users.salary from salary_datas "
+            + "join users on salary_datas.user_id = users.id "
+            + "join jobs on salary_datas.job_id = jobs.job_id "
+            + "order by salary_datas.id";
+
+    private static volatile SalarySnapshot current = null;
+
+    private final long dataVersion;
+    private final int rows;
+    private final String[] genders;
+    private final String[] educationLevels;
+    private final int[] jobIds;
+    private final String[] jobTitles;
+    private final IntBuffer idColumn;
+    private final IntBuffer ageColumn;
+    private final IntBuffer salaryColumn;
+    private final IntBuffer jobColumn;
+    private final FloatBuffer experienceColumn;
+    private final ByteBuffer genderColumn;
+    private final ByteBuffer educationColumn;
+
+    // The snapshot for the current DataVersion, rewritten from the database when it is stale.
+    public static SalarySnapshot get() throws SQLException, IOException {
+        SalarySnapshot snapshot = current;
+        if (snapshot != null && snapshot.dataVersion == DataVersion.get()) {
+            return snapshot;
+        }
+        synchronized (SalarySnapshot.class) {
+            snapshot = current;
+            if (snapshot == null || snapshot.dataVersion != DataVersion.get()) {
+                snapshot = refresh();
+            }
+            return snapshot;
+        }
+    }
+
+    // Rewrites the file whatever the DataVersion, for callers that saw the table change some
+    // other way. Readers of the previous snapshot keep their mapping of the replaced file.
+    public static synchronized SalarySnapshot refresh() throws SQLException, IOException {
+        long start = System.nanoTime();
+        Path file = Paths.get(FILE).toAbsolutePath();
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), "salary_view", ".tmp");
+        try {
+            write(temp, DataVersion.get());
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        SalarySnapshot snapshot = open(file);
+        current = snapshot;
+        System.out.println("Salary snapshot: " + snapshot.rows + " rows, " + Files.size(file) + " bytes in "
+                + (System.nanoTime() - start) / 1000000 + " ms");
+        return snapshot;
+    }
+
+    public static void write(Path file, long dataVersion) throws SQLException, IOException {
+        int capacity = 1024;
+        int[] ids = new int[capacity];
+        int[] ages = new int[capacity];
+        int[] salaries = new int[capacity];
+        int[] jobs = new int[capacity];
+        float[] experiences = new float[capacity];
+        byte[] genders = new byte[capacity];
+        byte[] educationLevels = new byte[capacity];
+        Map<String, Integer> genderCodes = new HashMap<>();
+        List<String> genderValues = new ArrayList<>();
+        Map<String, Integer> educationCodes = new HashMap<>();
+        List<String> educationValues = new ArrayList<>();
+        Map<Integer, Integer> jobCodes = new HashMap<>();
+        List<Integer> jobIds = new ArrayList<>();
+        List<String> jobTitles = new ArrayList<>();
+        int rows = 0;
+        try (Connection connection = ConnectionPool.getConnection();
+             QueryTimer timer = QueryTimer.start(QUERY);
+             PreparedStatement statement = DBUtil.prepareStreaming(connection, QUERY);
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                timer.row();
+                if (rows == capacity) {
+                    capacity *= 2;
+                    ids = Arrays.copyOf(ids, capacity);
+                    ages = Arrays.copyOf(ages, capacity);
+                    salaries = Arrays.copyOf(salaries, capacity);
+                    jobs = Arrays.copyOf(jobs, capacity);
+                    experiences = Arrays.copyOf(experiences, capacity);
+                    genders = Arrays.copyOf(genders, capacity);
+                    educationLevels = Arrays.copyOf(educationLevels, capacity);
+                }
+                ids[rows] = rs.getInt(1);
+                ages[rows] = rs.getInt(2);
+                genders[rows] = (byte) code(genderCodes, genderValues, rs.getString(3));
+                educationLevels[rows] = (byte) code(educationCodes, educationValues, rs.getString(4));
+                experiences[rows] = rs.getFloat(5);
+                int jobId = rs.getInt(6);
+                Integer job = jobCodes.get(jobId);
+                if (job == null) {
+                    job = jobIds.size();
+                    jobCodes.put(jobId, job);
+                    jobIds.add(jobId);
+                    jobTitles.add(rs.getString(7));
+                }
+                jobs[rows] = job;
+                salaries[rows] = rs.getInt(8);
+                rows++;
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.putInt(MAGIC).putInt(FORMAT).putLong(dataVersion).putInt(rows);
+            buffer = putStrings(channel, buffer, genderValues);
+            buffer = putStrings(channel, buffer, educationValues);
+            buffer = ensure(channel, buffer, 4);
+            buffer.putInt(jobIds.size());
+            for (int i = 0; i < jobIds.size(); i++) {
+                buffer = ensure(channel, buffer, 4);
+                buffer.putInt(jobIds.get(i));
+                buffer = putString(channel, buffer, jobTitles.get(i));
+            }
+            long written = channel.position() + buffer.position();
+            buffer = ensure(channel, buffer, 8);
+            for (long pad = (8 - written % 8) % 8; pad > 0; pad--) {
+                buffer.put((byte) 0);
+            }
+            for (int[] column : new int[][]{ids, ages, salaries, jobs}) {
+                buffer = putInts(channel, buffer, column, rows);
+            }
+            for (int i = 0; i < rows; ) {
+                buffer = ensure(channel, buffer, 4);
+                int n = Math.min(buffer.remaining() / 4, rows - i);
+                buffer.asFloatBuffer().put(experiences, i, n);
+                buffer.position(buffer.position() + 4 * n);
+                i += n;
+            }
+            for (byte[] column : new byte[][]{genders, educationLevels}) {
+                for (int i = 0; i < rows; ) {
+                    buffer = ensure(channel, buffer, 1);
+                    int n = Math.min(buffer.remaining(), rows - i);
+                    buffer.put(column, i, n);
+                    i += n;
+                }
+            }
+            drain(channel, buffer);
+            channel.force(false);
+        }
+    }
+
+    public static SalarySnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, Integer.MAX_VALUE))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (size < 20 || header.getInt() != MAGIC || header.getInt() != FORMAT) {
+                throw new IOException("Not a salary snapshot: " + file);
+            }
+            return new SalarySnapshot(channel, header, size);
+        }
+    }
+
+    private SalarySnapshot(FileChannel channel, ByteBuffer header, long size) throws IOException {
+        dataVersion = header.getLong();
+        rows = header.getInt();
+        genders = getStrings(header);
+        educationLevels = getStrings(header);
+        jobIds = new int[header.getInt()];
+        jobTitles = new String[jobIds.length];
+        for (int i = 0; i < jobIds.length; i++) {
+            jobIds[i] = header.getInt();
+            jobTitles[i] = getString(header);
+        }
+        long offset = (header.position() + 7) / 8 * 8;
+        long bytes = 4L * rows;
+        if (offset + 5 * bytes + 2L * rows != size) {
+            throw new IOException("Truncated salary snapshot");
+        }
+        idColumn = map(channel, offset, bytes).asIntBuffer();
+        ageColumn = map(channel, offset += bytes, bytes).asIntBuffer();
+        salaryColumn = map(channel, offset += bytes, bytes).asIntBuffer();
+        jobColumn = map(channel, offset += bytes, bytes).asIntBuffer();
+        experienceColumn = map(channel, offset += bytes, bytes).asFloatBuffer();
+        genderColumn = map(channel, offset += bytes, rows);
+        educationColumn = map(channel, offset + rows, rows);
+    }
+
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int id(int row) {
+        return idColumn.get(row);
+    }
+
+    public int age(int row) {
+        return ageColumn.get(row);
+    }
+
+    public int salary(int row) {
+        return salaryColumn.get(row);
+    }
+
+    public float yearsOfExperience(int row) {
+        return experienceColumn.get(row);
+    }
+
+    // Dictionary codes; gender and education are -1 for null.
+    public int gender(int row) {
+        return genderColumn.get(row);
+    }
+
+    public int educationLevel(int row) {
+        return educationColumn.get(row);
+    }
+
+    public int job(int row) {
+        return jobColumn.get(row);
+    }
+
+    public String[] getGenders() {
+        return genders.clone();
+    }
+
+    public String[] getEducationLevels() {
+        return educationLevels.clone();
+    }
+
+    public int[] getJobIds() {
+        return jobIds.clone();
+    }
+
+    public String[] getJobTitles() {
+        return jobTitles.clone();
+    }
+
+    private static int code(Map<String, Integer> codes, List<String> values, String value) throws IOException {
+        if (value == null) {
+            return -1;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            if (values.size() == Byte.MAX_VALUE) {
+                throw new IOException("More than " + Byte.MAX_VALUE + " distinct values for a byte column");
+            }
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    private static ByteBuffer map(FileChannel channel, long offset, long length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static ByteBuffer putInts(FileChannel channel, ByteBuffer buffer, int[] column, int rows) throws IOException {
+        for (int i = 0; i < rows; ) {
+            buffer = ensure(channel, buffer, 4);
+            int n = Math.min(buffer.remaining() / 4, rows - i);
+            buffer.asIntBuffer().put(column, i, n);
+            buffer.position(buffer.position() + 4 * n);
+            i += n;
+        }
+        return buffer;
+    }
+
+    private static ByteBuffer putStrings(FileChannel channel, ByteBuffer buffer, List<String> values) throws IOException {
+        buffer = ensure(channel, buffer, 4);
+        buffer.putInt(values.size());
+        for (String value : values) {
+            buffer = putString(channel, buffer, value);
+        }
+        return buffer;
+    }
+
+    private static ByteBuffer putString(FileChannel channel, ByteBuffer buffer, String value) throws IOException {
+        byte[] bytes = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+        buffer = ensure(channel, buffer, 4 + (bytes == null ? 0 : bytes.length));
+        buffer.putInt(bytes == null ? -1 : bytes.length);
+        if (bytes != null) {
+            buffer.put(bytes);
+        }
+        return buffer;
+    }
+
+    private static String[] getStrings(ByteBuffer header) {
+        String[] values = new String[header.getInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getString(header);
+        }
+        return values;
+    }
+
+    private static String getString(ByteBuffer header) {
+        int length = header.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        header.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Makes room for bytes more, writing out what is buffered (or growing for one long string).
+    private static ByteBuffer ensure(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return buffer;
+        }
+        drain(channel, buffer);
+        if (buffer.capacity() < bytes) {
+            return ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return buffer;
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
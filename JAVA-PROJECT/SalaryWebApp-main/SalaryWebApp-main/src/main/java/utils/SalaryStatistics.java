@@ -0,0 +1,268 @@
+package utils;
+
+import metrics.QueryTimer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Salary count, mean, min, max and percentiles grouped by job title, education level and
+// experience band. One grouped query returns a salary histogram per (job, education, band) cell,
+// so the database never ships raw rows; the three groupings and the overall figures are merged
+// from those cells here. With SalarySnapshot on, the same figures come from a scan of the mapped
+// columns instead. The rendered JSON is kept until DataVersion changes.
+public class SalaryStatistics {
+    static final int BAND_YEARS = Settings.getInt("salary.stats.bandYears", 5);
+
+    // The band width is an int from the settings, inlined so the grouped expression is textually
+    // identical in select and group by (MySQL's ONLY_FULL_GROUP_BY does not match two placeholders).
+    private static final String BAND = "floor(years_of_experience / " + BAND_YEARS + ")";
+    private static final String QUERY = "select job_title, education_level, " + BAND + ", salary, count(*) "
+            + "from salary_view group by job_title, education_level, " + BAND + ", salary";
+
+    private static volatile Snapshot snapshot = null;
+
+    public static Snapshot get() throws SQLException {
+        Snapshot current = snapshot;
+        if (current != null && current.version == DataVersion.get()) {
+            return current;
+        }
+        synchronized (SalaryStatistics.class) {
+            current = snapshot;
+            long version = DataVersion.get();
+            if (current == null || current.version != version) {
+                current = compute(version);
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private static Snapshot compute(long version) throws SQLException {
+        if (SalarySnapshot.ENABLED) {
+            try {
+                return compute(version, SalarySnapshot.get());
+            } catch (IOException e) {
+                System.out.println("Salary snapshot is not available, grouping in the database: " + e.getMessage());
+            }
+        }
+        long start = System.nanoTime();
+        Group overall = new Group("all");
+        Map<String, Group> byJob = new TreeMap<>();
+        Map<String, Group> byEducation = new TreeMap<>();
+        Map<Integer, Group> byBand = new TreeMap<>();
+        int cells = 0;
+        try (Connection connection = ConnectionPool.getConnection();
+             QueryTimer timer = QueryTimer.start(QUERY);
+             PreparedStatement statement = DBUtil.prepareStreaming(connection, QUERY);
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                timer.row();
+                String job = label(rs.getString(1));
+                String education = label(rs.getString(2));
+                int band = rs.getInt(3);
+                int salary = rs.getInt(4);
+                long count = rs.getLong(5);
+                overall.add(salary, count);
+                group(byJob, job, job).add(salary, count);
+                group(byEducation, education, education).add(salary, count);
+                band(byBand, band).add(salary, count);
+                cells++;
+            }
+        }
+        return render(version, overall, byJob, byEducation, byBand, cells + " cells", start);
+    }
+
+    // The same figures from one pass over the mapped columns; salaries are collected per group
+    // and counted into its histogram afterwards instead of one tree lookup per row.
+    private static Snapshot compute(long version, SalarySnapshot data) {
+        long start = System.nanoTime();
+        Group overall = new Group("all");
+        Map<String, Group> byJob = new TreeMap<>();
+        Map<String, Group> byEducation = new TreeMap<>();
+        Map<Integer, Group> byBand = new TreeMap<>();
+
+        String[] jobTitles = data.getJobTitles();
+        Group[] jobGroups = new Group[jobTitles.length];
+        for (int i = 0; i < jobGroups.length; i++) {
+            String job = label(jobTitles[i]);
+            jobGroups[i] = group(byJob, job, job);
+        }
+        String[] educationLevels = data.getEducationLevels();
+        // the last one is for null, made when a row needs it
+        Group[] educationGroups = new Group[educationLevels.length + 1];
+        for (int i = 0; i < educationLevels.length; i++) {
+            String education = label(educationLevels[i]);
+            educationGroups[i] = group(byEducation, education, education);
+        }
+
+        int rows = data.getRows();
+        for (int row = 0; row < rows; row++) {
+            int salary = data.salary(row);
+            int education = data.educationLevel(row);
+            if (education < 0) {
+                education = educationLevels.length;
+                if (educationGroups[education] == null) {
+                    educationGroups[education] = group(byEducation, label(null), label(null));
+                }
+            }
+            overall.add(salary);
+            jobGroups[data.job(row)].add(salary);
+            educationGroups[education].add(salary);
+            band(byBand, (int) Math.floor(data.yearsOfExperience(row) / (double) BAND_YEARS)).add(salary);
+        }
+        return render(version, overall, byJob, byEducation, byBand, "the snapshot", start);
+    }
+
+    private static Snapshot render(long version, Group overall, Map<String, Group> byJob, Map<String, Group> byEducation,
+                                   Map<Integer, Group> byBand, String source, long start) {
+        StringBuilder json = new StringBuilder(4096);
+        json.append("{\"version\":").append(version)
+                .append(",\"bandYears\":").append(BAND_YEARS)
+                .append(",\"overall\":");
+        overall.appendJson(json);
+        appendGroups(json.append(",\"job_title\":"), byJob);
+        appendGroups(json.append(",\"education_level\":"), byEducation);
+        appendGroups(json.append(",\"experience_band\":"), byBand);
+        json.append('}');
+        System.out.println("Salary statistics: " + overall.count + " rows from " + source + " in "
+                + (System.nanoTime() - start) / 1000000 + " ms");
+        return new Snapshot(version, json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Group band(Map<Integer, Group> byBand, int band) {
+        return group(byBand, band, band * BAND_YEARS + "-" + (band * BAND_YEARS + BAND_YEARS - 1));
+    }
+
+    private static String label(String value) {
+        return value == null ? "(none)" : value;
+    }
+
+    private static <K> Group group(Map<K, Group> groups, K key, String label) {
+        Group group = groups.get(key);
+        if (group == null) {
+            group = new Group(label);
+            groups.put(key, group);
+        }
+        return group;
+    }
+
+    private static void appendGroups(StringBuilder json, Map<?, Group> groups) {
+        json.append('[');
+        boolean first = true;
+        for (Group group : groups.values()) {
+            if (!first) {
+                json.append(',');
+            }
+            group.appendJson(json);
+            first = false;
+        }
+        json.append(']');
+    }
+
+    public static class Snapshot {
+        private final long version;
+        private final byte[] json;
+
+        Snapshot(long version, byte[] json) {
+            this.version = version;
+            this.json = json;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+    }
+
+    // Salary histogram of one group; percentiles are exact (nearest rank) because every
+    // distinct salary keeps its own count.
+    static class Group {
+        private final String key;
+        private final TreeMap<Integer, long[]> histogram = new TreeMap<>();
+        private long count = 0;
+        private double sum = 0;
+        // single salaries not yet counted into the histogram
+        private int[] pending = new int[0];
+        private int pendingCount = 0;
+
+        Group(String key) {
+            this.key = key;
+        }
+
+        void add(int salary, long rows) {
+            long[] bucket = histogram.get(salary);
+            if (bucket == null) {
+                histogram.put(salary, new long[]{rows});
+            } else {
+                bucket[0] += rows;
+            }
+            count += rows;
+            sum += (double) salary * rows;
+        }
+
+        void add(int salary) {
+            if (pendingCount == pending.length) {
+                pending = Arrays.copyOf(pending, Math.max(16, pendingCount * 2));
+            }
+            pending[pendingCount++] = salary;
+        }
+
+        private void fold() {
+            Arrays.sort(pending, 0, pendingCount);
+            for (int i = 0; i < pendingCount; ) {
+                int salary = pending[i];
+                int end = i + 1;
+                while (end < pendingCount && pending[end] == salary) {
+                    end++;
+                }
+                add(salary, end - i);
+                i = end;
+            }
+            pending = new int[0];
+            pendingCount = 0;
+        }
+
+        int[] percentiles(double... fractions) {
+            fold();
+            int[] values = new int[fractions.length];
+            long seen = 0;
+            int next = 0;
+            for (Map.Entry<Integer, long[]> entry : histogram.entrySet()) {
+                seen += entry.getValue()[0];
+                while (next < fractions.length && seen >= Math.max(1, (long) Math.ceil(fractions[next] * count))) {
+                    values[next++] = entry.getKey();
+                }
+            }
+            return values;
+        }
+
+        void appendJson(StringBuilder json) {
+            fold();
+            Json.appendString(json.append("{\"key\":"), key);
+            json.append(",\"count\":").append(count);
+            if (count == 0) {
+                json.append('}');
+                return;
+            }
+            int[] p = percentiles(0.25, 0.5, 0.75, 0.9);
+            json.append(",\"mean\":").append(Math.round(sum / count * 100) / 100.0)
+                    .append(",\"min\":").append(histogram.firstKey())
+                    .append(",\"p25\":").append(p[0])
+                    .append(",\"median\":").append(p[1])
+                    .append(",\"p75\":").append(p[2])
+                    .append(",\"p90\":").append(p[3])
+                    .append(",\"max\":").append(histogram.lastKey())
+                    .append('}');
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+// Virtual threads where the running JDK has them (21+). The default build targets 17, so the API
+// is looked up reflectively and every caller keeps a platform-thread fallback for null.
+// salary.threads.virtual=false turns them off, e.g. to compare the two under load.
+public class VirtualThreads {
+    static final boolean ENABLED = Settings.getBoolean("salary.threads.virtual", true);
+
+    private static final Method OF_VIRTUAL = lookup(Thread.class, "ofVirtual");
+    private static final Method NEW_PER_TASK = lookup(Executors.class, "newThreadPerTaskExecutor", ThreadFactory.class);
+
+    private static Method lookup(Class<?> type, String name, Class<?>... parameters) {
+        try {
+            return type.getMethod(name, parameters);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    public static boolean available() {
+        return ENABLED && OF_VIRTUAL != null && NEW_PER_TASK != null;
+    }
+
+    // Names the threads prefix0, prefix1, ...; null when virtual threads are not available.
+    public static ThreadFactory factory(String prefix) {
+        if (!available()) {
+            return null;
+        }
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Starts a new virtual thread per task; null when virtual threads are not available.
+    public static ExecutorService newPerTaskExecutor(String prefix) {
+        ThreadFactory factory = factory(prefix);
+        if (factory == null) {
+            return null;
+        }
+        try {
+            return (ExecutorService) NEW_PER_TASK.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+-- Tables the servlets use. "if not exists" so a database created by hand before migrations
+-- existed is adopted as it is.
+create table if not exists members (
+    id int auto_increment primary key,
+    username varchar(100) not null,
+    password varchar(255) not null,
+    role varchar(20) not null default 'user'
+);
+
+create table if not exists users (
+    id int auto_increment primary key,
+    age int,
+    gender varchar(10),
+    education_level varchar(30),
+    years_of_experience float,
+    salary int
+);
+
+create table if not exists jobs (
+    job_id int auto_increment primary key,
+    job_title varchar(100) not null
+);
+
+create table if not exists salary_datas (
+    id int auto_increment primary key,
+    user_id int not null,
+    job_id int not null
+);
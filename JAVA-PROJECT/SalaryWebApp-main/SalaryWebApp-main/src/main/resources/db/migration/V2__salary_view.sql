@@ -0,0 +1,5 @@
+create or replace view salary_view as
+select salary_datas.id, users.age, users.gender, users.education_level, users.years_of_experience, jobs.job_title, users.salary
+from salary_datas
+join users on salary_datas.user_id = users.id
+join jobs on salary_datas.job_id = jobs.job_id;
@@ -0,0 +1,10 @@
+-- Login: select password, role from members where username = ? is answered from the index alone.
+create index ix_members_login on members (username, password, role);
+
+-- Relations by user (user pages, user deletes) and by job (job deletes, salary_view from the
+-- jobs side); each includes the other key so the lookups never touch the table rows.
+create index ix_salary_datas_user on salary_datas (user_id, job_id);
+create index ix_salary_datas_job on salary_datas (job_id, user_id);
+
+-- Title lookups (CSV import, listing search by prefix).
+create index ix_jobs_title on jobs (job_title);
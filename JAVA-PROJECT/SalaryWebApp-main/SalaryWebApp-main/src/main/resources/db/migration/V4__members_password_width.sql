@@ -0,0 +1,2 @@
+-- PBKDF2 hashes are about 90 characters; hand-made schemas sized the column for 32-character MD5.
+alter table members modify password varchar(255) not null;
@@ -0,0 +1,15 @@
+-- Keyset paging in PagedTable orders by (sort column, id) and seeks past the last row of the
+-- previous page, so every sortable column needs an index ending in the id to answer that from a
+-- range scan. Each one also serves the listing search on that column (equality, or a prefix like).
+create index ix_users_age on users (age, id);
+create index ix_users_gender on users (gender, id);
+create index ix_users_education on users (education_level, id);
+create index ix_users_experience on users (years_of_experience, id);
+create index ix_users_salary on users (salary, id);
+
+-- jobs needs none: InnoDB appends the primary key job_id to every secondary index, so V3's
+-- ix_jobs_title (job_title) is already (job_title, job_id).
+
+-- ix_salary_datas_user/_job stay for the covering lookups; these follow the listing order.
+create index ix_salary_datas_user_id on salary_datas (user_id, id);
+create index ix_salary_datas_job_id on salary_datas (job_id, id);
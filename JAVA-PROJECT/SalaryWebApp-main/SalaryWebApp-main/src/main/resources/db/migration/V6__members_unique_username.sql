@@ -0,0 +1,8 @@
+-- Login looks a member up by username alone, so a username must name one row. Earlier rows keep
+-- their name; later duplicates are renamed to name#id rather than deleted, so an admin can still
+-- sort them out by hand.
+update members set username = concat(left(username, 88), '#', id)
+where id in (select id from (select later.id from members later
+                             join members earlier on earlier.username = later.username and earlier.id < later.id) duplicates);
+
+create unique index ux_members_username on members (username);
@@ -0,0 +1,80 @@
+package predict;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NormalEquationsTest {
+    // 50 jobs, so the matrix has to grow past its initial 32 job columns
+    private static final int JOBS = 50;
+
+    private static double salary(int age, int gender, int educationLevel, int jobId, float experience) {
+        return 20000 + 300 * age - 1500 * gender + 4000 * educationLevel + 250 * jobId + 2000 * experience;
+    }
+
+    private static void addRows(NormalEquations equations, long seed, int from, int to) {
+        Random random = new Random(seed);
+        for (int i = 0; i < to; i++) {
+            int age = 22 + random.nextInt(40);
+            int gender = random.nextInt(2);
+            int educationLevel = random.nextInt(3);
+            // later rows bring in jobs the earlier ones never had
+            int jobId = 1 + random.nextInt(Math.min(JOBS, 5 + i / 20));
+            float experience = random.nextInt(30) + random.nextInt(2) * 0.5f;
+            if (i >= from) {
+                equations.add(age, gender, educationLevel, jobId, experience, salary(age, gender, educationLevel, jobId, experience));
+            }
+        }
+    }
+
+    private static void assertSamePredictions(SalaryModel expected, SalaryModel actual) {
+        assertEquals(expected.getRows(), actual.getRows());
+        assertEquals(expected.getFeatures(), actual.getFeatures());
+        for (int jobId = 0; jobId <= JOBS + 1; jobId++) {
+            for (int educationLevel = 0; educationLevel < 3; educationLevel++) {
+                assertEquals(expected.predict(35, 1, educationLevel, jobId, 7.5f),
+                        actual.predict(35, 1, educationLevel, jobId, 7.5f), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    void appendingRowsMatchesFittingThemAllAtOnce() {
+        NormalEquations full = new NormalEquations();
+        addRows(full, 42, 0, 2000);
+
+        NormalEquations incremental = new NormalEquations();
+        addRows(incremental, 42, 0, 300);
+        SalaryModel early = incremental.solve();
+        addRows(incremental, 42, 300, 1100);
+        incremental.solve();
+        addRows(incremental, 42, 1100, 2000);
+
+        assertEquals(2000, incremental.getRows());
+        assertSamePredictions(full.solve(), incremental.solve());
+        // the early model knew fewer jobs than the final one
+        assertEquals(-1, early.jobColumn(JOBS));
+    }
+
+    @Test
+    void recoversAnExactLinearRelation() {
+        NormalEquations equations = new NormalEquations();
+        addRows(equations, 7, 0, 3000);
+        SalaryModel model = equations.solve();
+        assertEquals(salary(40, 0, 2, 12, 10), model.predict(40, 0, 2, 12, 10), 1.0);
+        assertEquals(salary(25, 1, 0, 3, 1.5f), model.predict(25, 1, 0, 3, 1.5f), 1.0);
+    }
+
+    @Test
+    void unknownJobsGetNoJobTerm() {
+        NormalEquations equations = new NormalEquations();
+        addRows(equations, 3, 0, 100);
+        SalaryModel model = equations.solve();
+        assertEquals(-1, model.jobColumn(10_000));
+        double[] salaries = new double[1];
+        model.predict(new int[]{30}, new int[]{0}, new int[]{1}, new int[]{10_000}, new float[]{4}, 1, salaries);
+        assertEquals(model.predict(30, 0, 1, 10_000, 4), salaries[0], 1e-9);
+    }
+}
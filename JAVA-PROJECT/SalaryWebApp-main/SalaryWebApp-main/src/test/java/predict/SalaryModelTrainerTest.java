@@ -0,0 +1,65 @@
+package predict;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import utils.DBUtil;
+import utils.TestDatabase;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SalaryModelTrainerTest {
+    private static final int ROWS = 600;
+
+    private static int[] jobIds;
+    private static long maxId;
+
+    @BeforeAll
+    static void load() throws SQLException, IOException {
+        jobIds = TestDatabase.seed(ROWS, 11);
+        try (ResultSet rs = DBUtil.executeQuery("select max(id) from salary_datas")) {
+            rs.next();
+            maxId = rs.getLong(1);
+        }
+    }
+
+    @Test
+    void addingRowsByIdRangeMatchesTheFullFit() throws SQLException {
+        SalaryModel full = SalaryModelTrainer.trainFromDatabase();
+
+        NormalEquations equations = new NormalEquations();
+        long first = maxId - ROWS;
+        long[] bounds = {first + 100, first + 101, first + 350, maxId};
+        long after = 0;
+        int read = 0;
+        for (long upTo : bounds) {
+            read += SalaryModelTrainer.addRows(equations, after, upTo);
+            equations.solve();
+            after = upTo;
+        }
+        SalaryModel incremental = equations.solve();
+
+        assertEquals(ROWS, read);
+        assertEquals(full.getRows(), incremental.getRows());
+        assertEquals(full.getFeatures(), incremental.getFeatures());
+        for (int jobId : jobIds) {
+            for (int gender = 0; gender < 2; gender++) {
+                assertEquals(full.predict(41, gender, 2, jobId, 12), incremental.predict(41, gender, 2, jobId, 12), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    void encodesTheCsvSpellings() {
+        assertEquals(0, SalaryModelTrainer.encodeGender("male"));
+        assertEquals(1, SalaryModelTrainer.encodeGender("Female"));
+        assertEquals(-1, SalaryModelTrainer.encodeGender("Other"));
+        assertEquals(0, SalaryModelTrainer.encodeEducationLevel("Bachelor's Degree"));
+        assertEquals(1, SalaryModelTrainer.encodeEducationLevel("Master's"));
+        assertEquals(2, SalaryModelTrainer.encodeEducationLevel("phd"));
+        assertEquals(-1, SalaryModelTrainer.encodeEducationLevel(null));
+    }
+}
@@ -0,0 +1,39 @@
+package schema;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SchemaMigratorTest {
+    // A members table made by hand before migrations, with a username registered three times.
+    @Test
+    void renamesDuplicateUsernamesBeforeMakingThemUnique() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:duplicates;MODE=MySQL", "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table members (id int auto_increment primary key, username varchar(100) not null, "
+                    + "password varchar(32) not null, role varchar(20) not null default 'user')");
+            statement.execute("insert into members (username, password, role) values "
+                    + "('admin', 'first', 'admin'), ('bob', 'bob', 'user'), ('admin', 'second', 'user'), ('admin', 'third', 'user')");
+
+            assertEquals(SchemaMigrator.MIGRATIONS.length, SchemaMigrator.migrate(connection));
+
+            List<String> members = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery("select username, password from members order by id")) {
+                while (rs.next()) {
+                    members.add(rs.getString(1) + "=" + rs.getString(2));
+                }
+            }
+            assertEquals(List.of("admin=first", "bob=bob", "admin#3=second", "admin#4=third"), members);
+            assertThrows(SQLException.class, () -> statement.execute("insert into members (username, password) values ('bob', 'again')"));
+        }
+    }
+}
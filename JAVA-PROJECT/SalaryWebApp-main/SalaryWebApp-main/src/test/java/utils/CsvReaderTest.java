@@ -0,0 +1,103 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvReaderTest {
+    private static List<List<String>> readAll(Reader input) throws IOException {
+        CsvReader csv = new CsvReader(input);
+        List<List<String>> records = new ArrayList<>();
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            records.add(new ArrayList<>(record));
+        }
+        return records;
+    }
+
+    private static List<List<String>> readAll(String input) throws IOException {
+        return readAll(new StringReader(input));
+    }
+
+    @Test
+    void splitsPlainRecords() throws IOException {
+        assertEquals(Arrays.asList(Arrays.asList("Age", "Gender"), Arrays.asList("32", "Male")),
+                readAll("Age,Gender\n32,Male\n"));
+    }
+
+    @Test
+    void acceptsEveryLineEnding() throws IOException {
+        List<List<String>> expected = Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("c", "d"), Arrays.asList("e", "f"));
+        assertEquals(expected, readAll("a,b\r\nc,d\re,f"));
+        assertEquals(expected, readAll("a,b\nc,d\ne,f\n"));
+    }
+
+    @Test
+    void keepsEmptyFields() throws IOException {
+        assertEquals(Arrays.asList(Arrays.asList("", "x", ""), Arrays.asList("")), readAll(",x,\n\n"));
+    }
+
+    @Test
+    void unquotesRfc4180Fields() throws IOException {
+        assertEquals(Arrays.asList(Arrays.asList("Engineer, Senior", "say \"hi\"", "two\nlines", "")),
+                readAll("\"Engineer, Senior\",\"say \"\"hi\"\"\",\"two\nlines\",\"\"\n"));
+    }
+
+    @Test
+    void keepsQuotesInsideAnUnquotedField() throws IOException {
+        assertEquals(Arrays.asList(Arrays.asList("5'10\"", "x")), readAll("5'10\",x\n"));
+    }
+
+    @Test
+    void failsOnAnUnterminatedQuote() {
+        assertThrows(IOException.class, () -> readAll("a,\"b\n"));
+    }
+
+    @Test
+    void leavesTheByteOrderMarkToTheCaller() throws IOException {
+        // SalaryCsvImporter strips it from the header names
+        List<String> header = readAll("\uFEFFAge,Salary\n").get(0);
+        assertEquals("\uFEFFAge", header.get(0));
+        assertEquals("Salary", header.get(1));
+    }
+
+    @Test
+    void readsRecordsAcrossBufferBoundaries() throws IOException {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            input.append(i).append(",\"Job ").append(i).append(", \"\"quoted\"\"\"\r\n");
+        }
+        // a few characters per read() so the refills land mid-field and mid-quote
+        Reader trickle = new StringReader(input.toString()) {
+            @Override
+            public int read(char[] buffer, int off, int len) throws IOException {
+                return super.read(buffer, off, Math.min(len, 7));
+            }
+        };
+        List<List<String>> records = readAll(trickle);
+        assertEquals(20000, records.size());
+        assertEquals(Arrays.asList("12345", "Job 12345, \"quoted\""), records.get(12345));
+    }
+
+    @Test
+    void countsLinesIncludingThoseInsideQuotes() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("h\n\"a\nb\"\nc"));
+        csv.next();
+        assertEquals(1, csv.getLine());
+        csv.next();
+        assertEquals(3, csv.getLine());
+        csv.next();
+        assertEquals(4, csv.getLine());
+        assertNull(csv.next());
+        assertEquals(4, csv.getLine());
+    }
+}
@@ -0,0 +1,116 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonArrayReaderTest {
+    private static List<Map<String, String>> readAll(Reader input) throws IOException {
+        JsonArrayReader json = new JsonArrayReader(input);
+        List<Map<String, String>> objects = new ArrayList<>();
+        Map<String, String> object;
+        while ((object = json.next()) != null) {
+            objects.add(new HashMap<>(object));
+        }
+        return objects;
+    }
+
+    private static List<Map<String, String>> readAll(String input) throws IOException {
+        return readAll(new StringReader(input));
+    }
+
+    private static Map<String, String> map(String... pairs) {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            map.put(pairs[i], pairs[i + 1]);
+        }
+        return map;
+    }
+
+    @Test
+    void readsFlatObjectsAsText() throws IOException {
+        List<Map<String, String>> objects = readAll(" [ {\"age\": 32, \"gender\":\"Male\", \"years\":5.5, \"note\":null},\n{} ] ");
+        assertEquals(2, objects.size());
+        assertEquals(map("age", "32", "gender", "Male", "years", "5.5", "note", null), objects.get(0));
+        assertEquals(map(), objects.get(1));
+    }
+
+    @Test
+    void readsAnEmptyArray() throws IOException {
+        JsonArrayReader json = new JsonArrayReader(new StringReader("[ ]"));
+        json.start();
+        assertNull(json.next());
+        assertNull(json.next());
+    }
+
+    @Test
+    void unescapesStrings() throws IOException {
+        Map<String, String> object = readAll("[{\"t\\\"x\":\"a\\\"b\\\\c\\/d\\n\\t\\r\\b\\f\\u00e9\\u0041\"}]").get(0);
+        assertEquals(map("t\"x", "a\"b\\c/d\n\t\r\b\f\u00e9A"), object);
+    }
+
+    @Test
+    void readsObjectsAcrossBufferBoundaries() throws IOException {
+        StringBuilder input = new StringBuilder("[");
+        for (int i = 0; i < 10000; i++) {
+            input.append(i == 0 ? "" : ",\n  ").append("{\"id\": ").append(i)
+                    .append(", \"title\": \"Job \\u0023").append(i).append(" \\\"senior\\\"\"}");
+        }
+        input.append("]");
+        // short reads so the refills land inside numbers, strings and escapes
+        Reader trickle = new StringReader(input.toString()) {
+            @Override
+            public int read(char[] buffer, int off, int len) throws IOException {
+                return super.read(buffer, off, Math.min(len, 5));
+            }
+        };
+        List<Map<String, String>> objects = readAll(trickle);
+        assertEquals(10000, objects.size());
+        assertEquals(map("id", "4321", "title", "Job #4321 \"senior\""), objects.get(4321));
+    }
+
+    @Test
+    void startRejectsABodyThatIsNotAnArray() {
+        assertThrows(IOException.class, () -> new JsonArrayReader(new StringReader("{\"age\": 1}")).start());
+        assertThrows(IOException.class, () -> new JsonArrayReader(new StringReader("")).start());
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        String[] inputs = {
+                "[{\"a\":1} {\"a\":2}]",  // missing comma between objects
+                "[{\"a\":1,}]",           // trailing comma in an object
+                "[{a:1}]",                // unquoted name
+                "[{\"a\" 1}]",            // missing colon
+                "[{\"a\":}]",             // missing value
+                "[{\"a\":[1]}]",          // nested value
+                "[{\"a\":\"x\\q\"}]",     // bad escape
+                "[{\"a\":\"\\u00zz\"}]",  // bad unicode escape
+                "[{\"a\":\"open}]",       // unterminated string
+                "[{\"a\":1}",             // unterminated array
+                "[1]",                    // element that is not an object
+        };
+        for (String input : inputs) {
+            IOException e = assertThrows(IOException.class, () -> readAll(input), input);
+            assertTrue(e.getMessage() != null && !e.getMessage().isEmpty(), input);
+        }
+    }
+
+    @Test
+    void returnsTheObjectsBeforeAnError() throws IOException {
+        JsonArrayReader json = new JsonArrayReader(new StringReader("[{\"a\":1}, {\"a\":"));
+        assertEquals(map("a", "1"), json.next());
+        assertThrows(IOException.class, json::next);
+    }
+}
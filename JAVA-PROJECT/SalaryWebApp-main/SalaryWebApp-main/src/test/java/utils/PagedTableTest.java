@@ -0,0 +1,90 @@
+package utils;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import schema.SchemaMigrator;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PagedTableTest {
+    private static final String[] COLUMNS = {"id", "age", "gender", "education_level", "years_of_experience", "salary"};
+    private static final int ROWS = 25;
+
+    @BeforeAll
+    static void load() throws SQLException, IOException {
+        SchemaMigrator.migrate();
+        DBUtil.executeUpdate("delete from salary_datas");
+        DBUtil.executeUpdate("delete from users");
+        Random random = new Random(3);
+        String[] genders = {"Male", "Female"};
+        String[] education = {"Bachelor's", "Master's", "PhD"};
+        for (int i = 0; i < ROWS; i++) {
+            // every sortable column has a NULL run of about a fifth of the rows, and repeated values
+            DBUtil.executeUpdate("insert into users (age, gender, education_level, years_of_experience, salary) values (?, ?, ?, ?, ?)",
+                    random.nextInt(5) == 0 ? null : 25 + random.nextInt(4),
+                    random.nextInt(5) == 0 ? null : genders[random.nextInt(2)],
+                    random.nextInt(5) == 0 ? null : education[random.nextInt(3)],
+                    random.nextInt(5) == 0 ? null : (float) random.nextInt(3),
+                    i % 5 == 0 ? null : 1000 * random.nextInt(4));
+        }
+    }
+
+    // What OFFSET paging over the whole ordered table returns.
+    private static List<Object> expected(int column, boolean descending, String where) throws SQLException {
+        String direction = descending ? " desc" : " asc";
+        List<Object> ids = new ArrayList<>();
+        try (ResultSet rs = DBUtil.executeQuery("select id from users" + where + " order by " + COLUMNS[column] + direction
+                + ", id" + direction)) {
+            while (rs.next()) {
+                ids.add(rs.getObject(1));
+            }
+        }
+        return ids;
+    }
+
+    // Walks the pages in order, as the listing does, so every page after the first is a seek.
+    private static List<Object> walk(int column, boolean descending, String search, int length) throws SQLException {
+        List<Object> ids = new ArrayList<>();
+        for (int start = 0; ; start += length) {
+            PagedTable.Page page = PagedTable.USERS.fetch(column, descending, search, start, length);
+            for (Object[] row : page.getRows()) {
+                ids.add(row[0]);
+            }
+            if (page.getRows().size() < length) {
+                assertEquals(page.getFiltered(), ids.size());
+                return ids;
+            }
+        }
+    }
+
+    @Test
+    void seeksThroughNullsInBothDirections() throws SQLException {
+        for (int column = 0; column < COLUMNS.length; column++) {
+            for (boolean descending : new boolean[]{false, true}) {
+                List<Object> expected = expected(column, descending, "");
+                assertEquals(ROWS, expected.size());
+                for (int length : new int[]{1, 3, 10}) {
+                    assertEquals(expected, walk(column, descending, "", length),
+                            COLUMNS[column] + (descending ? " desc" : " asc") + ", pages of " + length);
+                }
+            }
+        }
+    }
+
+    @Test
+    void seeksWithinASearch() throws SQLException {
+        for (int column = 0; column < COLUMNS.length; column++) {
+            for (boolean descending : new boolean[]{false, true}) {
+                assertEquals(expected(column, descending, " where gender like 'Fem%' or education_level like 'Fem%'"),
+                        walk(column, descending, "Fem", 2), COLUMNS[column] + (descending ? " desc" : " asc"));
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package utils;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import schema.SchemaMigrator;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SalaryCsvImporterTest {
+    private static final String HEADER = "Age,Gender,Education Level,Job Title,Years of Experience,Salary\n";
+
+    @BeforeAll
+    static void migrate() throws SQLException, IOException {
+        SchemaMigrator.migrate();
+    }
+
+    @BeforeEach
+    void empty() throws SQLException {
+        DBUtil.executeUpdate("delete from salary_datas");
+        DBUtil.executeUpdate("delete from users");
+    }
+
+    private static SalaryCsvImporter.Progress importCsv(String csv) throws IOException {
+        byte[] bytes = csv.getBytes(StandardCharsets.UTF_8);
+        return SalaryCsvImporter.importCsv(new ByteArrayInputStream(bytes), bytes.length);
+    }
+
+    private static long relations() throws SQLException {
+        try (ResultSet rs = DBUtil.executeQuery("select count(*) from salary_datas")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    @Test
+    void importsAFileWithAByteOrderMarkAndQuotedTitles() throws IOException, SQLException {
+        SalaryCsvImporter.Progress progress = importCsv("\uFEFF" + HEADER
+                + "32,Male,Bachelor's,\"Engineer, Senior\",5,90000\n"
+                + "28,Female,Master's,Data Analyst,3,65000.0\n"
+                + "x,Female,Master's,Data Analyst,3,65000\n");
+        assertEquals(2, progress.getRowsImported());
+        assertEquals(1, progress.getRowsSkipped());
+        assertEquals(2, relations());
+        try (ResultSet rs = DBUtil.executeQuery("select count(*) from jobs where job_title = ?", "Engineer, Senior")) {
+            rs.next();
+            assertEquals(1, rs.getLong(1));
+        }
+    }
+
+    @Test
+    void rejectsAFileWithoutTheSalaryColumns() {
+        IOException e = assertThrows(IOException.class, () -> importCsv("Name,Salary\nA,1\n"));
+        assertTrue(e.getMessage().startsWith("Import stopped at line 1: CSV header must contain"), e.getMessage());
+    }
+
+    // Chunks are committed one by one, so a failure keeps the rows before it and says where it stopped.
+    @Test
+    void reportsHowFarAFailedImportGot() throws SQLException {
+        StringBuilder csv = new StringBuilder(HEADER);
+        int rows = SalaryCsvImporter.BATCH_SIZE + 2;
+        for (int i = 0; i < rows; i++) {
+            csv.append(20 + i % 40).append(",Male,Bachelor's,Engineer,1,1000\n");
+        }
+        csv.append("30,\"Male,Bachelor's,Engineer,1,1000\n");
+
+        IOException e = assertThrows(IOException.class, () -> importCsv(csv.toString()));
+        long committedLine = SalaryCsvImporter.BATCH_SIZE + 1;
+        assertEquals("Import stopped at line " + (rows + 2) + ": Unterminated quoted field. "
+                + SalaryCsvImporter.BATCH_SIZE + " rows were imported, through line " + committedLine, e.getMessage());
+        assertEquals(SalaryCsvImporter.BATCH_SIZE, relations());
+        assertTrue(SalaryCsvImporter.getLastProgress().toJson().contains("\"committedLine\":" + committedLine));
+    }
+
+    @Test
+    void refusesASecondImportWhileOneIsRunning() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        byte[] csv = (HEADER + "30,Male,Bachelor's,Engineer,1,1000\n").getBytes(StandardCharsets.UTF_8);
+        InputStream slow = new ByteArrayInputStream(csv) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                reading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                return super.read(b, off, len);
+            }
+        };
+        Thread first = new Thread(() -> {
+            try {
+                SalaryCsvImporter.importCsv(slow, csv.length);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        first.start();
+        try {
+            assertTrue(reading.await(10, TimeUnit.SECONDS));
+            SalaryCsvImporter.Progress running = SalaryCsvImporter.getLastProgress();
+            assertThrows(SalaryCsvImporter.AlreadyRunningException.class, () -> importCsv(HEADER));
+            assertTrue(running == SalaryCsvImporter.getLastProgress() && running.isRunning());
+        } finally {
+            release.countDown();
+            first.join();
+        }
+        assertFalse(SalaryCsvImporter.getLastProgress().isRunning());
+        assertEquals(1, importCsv(HEADER + "31,Male,Bachelor's,Engineer,1,1000\n").getRowsImported());
+    }
+}
@@ -0,0 +1,92 @@
+package utils;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import predict.SalaryModel;
+import predict.SalaryModelTrainer;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SalarySnapshotTest {
+    // more than the writer's initial column capacity of 1024
+    private static final int ROWS = 2500;
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void load() throws SQLException, IOException {
+        TestDatabase.seed(ROWS, 5);
+    }
+
+    private static String value(String[] dictionary, int code) {
+        return code < 0 ? null : dictionary[code];
+    }
+
+    @Test
+    void readsBackEveryRowOfSalaryView() throws SQLException, IOException {
+        Path file = dir.resolve("salary_view.col");
+        SalarySnapshot.write(file, 42);
+        SalarySnapshot snapshot = SalarySnapshot.open(file);
+
+        assertEquals(42, snapshot.getDataVersion());
+        assertEquals(ROWS, snapshot.getRows());
+        String[] genders = snapshot.getGenders();
+        String[] educationLevels = snapshot.getEducationLevels();
+        int[] jobIds = snapshot.getJobIds();
+        String[] jobTitles = snapshot.getJobTitles();
+        int row = 0;
+        try (ResultSet rs = DBUtil.executeQuery(SalarySnapshot.QUERY)) {
+            while (rs.next()) {
+                assertEquals(rs.getInt(1), snapshot.id(row));
+                assertEquals(rs.getInt(2), snapshot.age(row));
+                assertEquals(rs.getString(3), value(genders, snapshot.gender(row)));
+                assertEquals(rs.getString(4), value(educationLevels, snapshot.educationLevel(row)));
+                assertEquals(rs.getFloat(5), snapshot.yearsOfExperience(row));
+                assertEquals(rs.getInt(6), jobIds[snapshot.job(row)]);
+                assertEquals(rs.getString(7), jobTitles[snapshot.job(row)]);
+                assertEquals(rs.getInt(8), snapshot.salary(row));
+                row++;
+            }
+        }
+        assertEquals(ROWS, row);
+    }
+
+    @Test
+    void trainsTheSameModelAsTheDatabase() throws SQLException, IOException {
+        Path file = dir.resolve("salary_view.col");
+        SalarySnapshot.write(file, 1);
+        SalarySnapshot snapshot = SalarySnapshot.open(file);
+        SalaryModel fromSnapshot = SalaryModelTrainer.trainFromSnapshot(snapshot);
+        SalaryModel fromDatabase = SalaryModelTrainer.trainFromDatabase();
+        assertEquals(fromDatabase.getRows(), fromSnapshot.getRows());
+        assertEquals(fromDatabase.getFeatures(), fromSnapshot.getFeatures());
+        for (int jobId : snapshot.getJobIds()) {
+            assertEquals(fromDatabase.predict(33, 1, 1, jobId, 6.5f), fromSnapshot.predict(33, 1, 1, jobId, 6.5f), 1e-6);
+        }
+    }
+
+    @Test
+    void rejectsAnotherFileOrATruncatedOne() throws SQLException, IOException {
+        Path other = dir.resolve("other.col");
+        Files.write(other, new byte[64]);
+        assertThrows(IOException.class, () -> SalarySnapshot.open(other));
+
+        Path file = dir.resolve("salary_view.col");
+        SalarySnapshot.write(file, 1);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+        assertThrows(IOException.class, () -> SalarySnapshot.open(file));
+    }
+}
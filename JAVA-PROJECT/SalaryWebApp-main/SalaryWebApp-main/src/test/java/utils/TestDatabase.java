@@ -0,0 +1,63 @@
+package utils;
+
+import schema.SchemaMigrator;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+
+// Fills the shared H2 database with random salary rows for the tests that read salary_view.
+public class TestDatabase {
+    public static final int JOBS = 40;
+
+    private static final String[] GENDERS = {"Male", "Female"};
+    private static final String[] EDUCATION = {"Bachelor's", "Master's Degree", "PhD"};
+    // about one row in twenty has one of these, which the model cannot encode and skips
+    private static final String[] ODD_GENDERS = {"Other", null};
+    private static final String[] ODD_EDUCATION = {"High School", null};
+
+    // Replaces every salary row with rows generated from randomSeed and returns the ids of the
+    // JOBS new jobs. Every third title has non-ASCII characters, and jobs come into use a few at
+    // a time, so later id ranges bring jobs the earlier ones never saw.
+    public static int[] seed(int rows, long randomSeed) throws SQLException, IOException {
+        SchemaMigrator.migrate();
+        DBUtil.executeUpdate("delete from salary_datas");
+        DBUtil.executeUpdate("delete from users");
+        Random random = new Random(randomSeed);
+        int[] jobIds = new int[JOBS];
+        try (Connection connection = ConnectionPool.getConnection();
+             PreparedStatement job = connection.prepareStatement("insert into jobs (job_title) values (?)", Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement user = connection.prepareStatement("insert into users (age, gender, education_level, years_of_experience, salary) "
+                     + "values (?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement relation = connection.prepareStatement("insert into salary_datas (user_id, job_id) values (?, ?)")) {
+            for (int i = 0; i < jobIds.length; i++) {
+                job.setString(1, "Test job " + i + (i % 3 == 0 ? " \u00e9\u65e5" : ""));
+                job.executeUpdate();
+                jobIds[i] = generatedKey(job);
+            }
+            for (int i = 0; i < rows; i++) {
+                user.setInt(1, 22 + random.nextInt(40));
+                user.setString(2, random.nextInt(20) == 0 ? ODD_GENDERS[random.nextInt(2)] : GENDERS[random.nextInt(2)]);
+                user.setString(3, random.nextInt(20) == 0 ? ODD_EDUCATION[random.nextInt(2)] : EDUCATION[random.nextInt(3)]);
+                user.setFloat(4, random.nextInt(60) * 0.5f);
+                user.setInt(5, 30000 + random.nextInt(150000));
+                user.executeUpdate();
+                relation.setInt(1, generatedKey(user));
+                relation.setInt(2, jobIds[random.nextInt(Math.min(jobIds.length, 3 + i / 15))]);
+                relation.executeUpdate();
+            }
+        }
+        return jobIds;
+    }
+
+    private static int generatedKey(PreparedStatement statement) throws SQLException {
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            keys.next();
+            return keys.getInt(1);
+        }
+    }
+}
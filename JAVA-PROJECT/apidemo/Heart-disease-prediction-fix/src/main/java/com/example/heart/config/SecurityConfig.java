@@ -16,7 +16,6 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
-import org.springframework.web.client.RestTemplate;
 
 @Configuration
 @EnableWebSecurity
@@ -40,18 +39,13 @@ public class SecurityConfig {
         return auth;
     }
 
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-    }
-
-
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(csrf -> csrf.disable()) // Nonaktifkan CSRF // Nonaktifkan CSRF jika tidak diperlukan (API biasanya tidak memerlukannya)
                 .authorizeHttpRequests(authorize -> authorize
                         .requestMatchers("/assets/**", "/css/**", "/js/**", "/images/**").permitAll()
+                        .requestMatchers("/api/heart/http-pool").authenticated() // Statistik internal, harus sebelum permitAll "/api/**"
                         .requestMatchers("/api/heart/search", "/api/**").permitAll() // Izinkan akses tanpa autentikasi ke endpoint ini
                         .requestMatchers("/api/**", "/index").authenticated()
                         .requestMatchers("/api/heart/**").permitAll()  // Mengizinkan semua rute di dalam /api/heart/
@@ -6,6 +6,7 @@ import com.example.heart.service.PatientService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
@@ -20,12 +21,15 @@ public class PatientServiceImpl implements PatientService {
     @Autowired
     private PatientsRepository patientRepository;
 
+    @Autowired
+    private RestTemplate restTemplate;
+
+    // URL API Flask
+    @Value("${flask.api.url:http://127.0.0.1:5000/predict}")
+    private String apiUrl;
+
     @Override
     public PatientsData savePatientData(PatientsData patientData) {
-        // URL API Flask
-        String apiUrl = "http://localhost:5000/predict";
-        RestTemplate restTemplate = new RestTemplate();
-
         try {
             // Kirim data pasien ke API Flask dan dapatkan respons
             Map<String, Object> response = restTemplate.postForObject(apiUrl, patientData, Map.class);
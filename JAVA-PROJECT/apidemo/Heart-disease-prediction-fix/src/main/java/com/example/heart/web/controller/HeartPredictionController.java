@@ -94,6 +94,7 @@ package com.example.heart.web.controller;
 import com.example.heart.model.PatientsData;
 import com.example.heart.repo.PatientsRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestTemplate;
@@ -106,17 +107,20 @@ import java.util.Map;
 @RequestMapping("/api/heart")
 public class HeartPredictionController {
 
-    private static final String FLASK_API_URL = "http://127.0.0.1:5000/predict";
+    @Value("${flask.api.url:http://127.0.0.1:5000/predict}")
+    private String flaskApiUrl;
 
     @Autowired
     private PatientsRepository patientRepository;
 
+    // RestTemplate bersama dari AppConfig, koneksinya diambil dari pool
+    @Autowired
+    private RestTemplate restTemplate;
+
     @PostMapping("/predict")
     public ResponseEntity<Map<String, Object>> predictHeartRisk(@RequestBody PatientsData inputData) {
         Map<String, Object> responseMap = new HashMap<>();
         try {
-            // Persiapkan RestTemplate untuk komunikasi ke Flask API
-            RestTemplate restTemplate = new RestTemplate();
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
 
@@ -139,7 +143,7 @@ public class HeartPredictionController {
 
             // Kirim data ke Flask API dan tangani response
             HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestData, headers);
-            ResponseEntity<Map> response = restTemplate.postForEntity(FLASK_API_URL, request, Map.class);
+            ResponseEntity<Map> response = restTemplate.postForEntity(flaskApiUrl, request, Map.class);
 
             if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
                 Map<String, Object> responseBody = response.getBody();
@@ -0,0 +1,30 @@
+package com.example.heart.web.controller;
+
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/heart")
+public class HttpPoolController {
+
+    @Autowired
+    private PoolingHttpClientConnectionManager flaskConnectionManager;
+
+    // Statistik pool koneksi ke Flask API
+    @GetMapping("/http-pool")
+    public Map<String, Object> httpPool() {
+        PoolStats stats = flaskConnectionManager.getTotalStats();
+        Map<String, Object> pool = new LinkedHashMap<>();
+        pool.put("leased", stats.getLeased());
+        pool.put("available", stats.getAvailable());
+        pool.put("pending", stats.getPending());
+        pool.put("max", stats.getMax());
+        pool.put("maxPerRoute", flaskConnectionManager.getDefaultMaxPerRoute());
+        return pool;
+    }
+}
@@ -1,6 +1,7 @@
 # Import library yang diperlukan
 import pandas as pd
 from flask import Flask, request, jsonify
+from werkzeug.serving import WSGIRequestHandler
 import joblib
 
 # Inisialisasi aplikasi Flask
@@ -44,4 +45,6 @@ def predict():
 
 # Jalankan aplikasi Flask
 if __name__ == '__main__':
+    # HTTP/1.1 supaya koneksi keep-alive dari pool Spring bisa dipakai ulang
+    WSGIRequestHandler.protocol_version = "HTTP/1.1"
     app.run(host='0.0.0.0', port=5000, debug=True)
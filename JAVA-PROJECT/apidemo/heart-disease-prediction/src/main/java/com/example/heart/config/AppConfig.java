@@ -1,14 +1,69 @@
 package com.example.heart.config;
 
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class AppConfig {
 
+    @Value("${flask.http.max-connections:20}")
+    private int maxConnections;
+
+    @Value("${flask.http.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${flask.http.read-timeout-ms:10000}")
+    private long readTimeoutMs;
+
+    // Lama menunggu koneksi kosong dari pool sebelum request gagal
+    @Value("${flask.http.pool-timeout-ms:2000}")
+    private long poolTimeoutMs;
+
+    @Value("${flask.http.keep-alive-seconds:30}")
+    private long keepAliveSeconds;
+
+    // Pool koneksi ke Flask API, dipakai bersama oleh semua request (lihat /api/heart/http-pool, aktif jika heart.http-pool.enabled=true)
+    @Bean
+    public PoolingHttpClientConnectionManager flaskConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+
+    @Bean
+    public CloseableHttpClient flaskHttpClient(PoolingHttpClientConnectionManager flaskConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(flaskConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        // dipakai kalau server tidak mengirim header Keep-Alive
+                        .setConnectionKeepAlive(TimeValue.ofSeconds(keepAliveSeconds))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(keepAliveSeconds))
+                .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(CloseableHttpClient flaskHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(flaskHttpClient));
     }
 }
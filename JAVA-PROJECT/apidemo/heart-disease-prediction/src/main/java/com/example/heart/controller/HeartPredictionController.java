@@ -4,6 +4,7 @@ package com.example.heart.controller;
 import com.example.heart.model.PatientsData;
 import com.example.heart.repository.PatientsRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestTemplate;
@@ -16,17 +17,21 @@ import java.util.Map;
 @RequestMapping("/api/heart")
 public class HeartPredictionController {
 
-    private final String FLASK_API_URL = "http://127.0.0.1:5000/predict";
+    @Value("${flask.api.url:http://127.0.0.1:5000/predict}")
+    private String flaskApiUrl;
 
     @Autowired
     private PatientsRepository patientRepository;
+
+    // RestTemplate bersama dari AppConfig, koneksinya diambil dari pool
+    @Autowired
+    private RestTemplate restTemplate;
+
     @PostMapping("/predict")
     public ResponseEntity<Map<String, Object>> predictHeartRisk(@RequestBody PatientsData inputData) {
         Map<String, Object> responseMap = new HashMap<>();
 
         try {
-            // Siapkan RestTemplate untuk mengirim data ke Flask API
-            RestTemplate restTemplate = new RestTemplate();
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
 
@@ -49,7 +54,7 @@ public class HeartPredictionController {
 
             // Kirim data ke Flask API
             HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestData, headers);
-            ResponseEntity<Map> response = restTemplate.postForEntity(FLASK_API_URL, request, Map.class);
+            ResponseEntity<Map> response = restTemplate.postForEntity(flaskApiUrl, request, Map.class);
 
             // Ambil respons dari Flask API
             Map<String, Object> responseBody = response.getBody();
@@ -0,0 +1,42 @@
+package com.example.heart.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Aplikasi ini tidak memakai Spring Security, jadi endpoint ini mati kecuali
+// heart.http-pool.enabled=true, dan hanya menjawab request dari localhost
+@RestController
+@RequestMapping("/api/heart")
+@ConditionalOnProperty(name = "heart.http-pool.enabled", havingValue = "true")
+public class HttpPoolController {
+
+    @Autowired
+    private PoolingHttpClientConnectionManager flaskConnectionManager;
+
+    // Statistik pool koneksi ke Flask API
+    @GetMapping("/http-pool")
+    public Map<String, Object> httpPool(HttpServletRequest request) throws UnknownHostException {
+        if (!InetAddress.getByName(request.getRemoteAddr()).isLoopbackAddress()) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+        }
+        PoolStats stats = flaskConnectionManager.getTotalStats();
+        Map<String, Object> pool = new LinkedHashMap<>();
+        pool.put("leased", stats.getLeased());
+        pool.put("available", stats.getAvailable());
+        pool.put("pending", stats.getPending());
+        pool.put("max", stats.getMax());
+        pool.put("maxPerRoute", flaskConnectionManager.getDefaultMaxPerRoute());
+        return pool;
+    }
+}
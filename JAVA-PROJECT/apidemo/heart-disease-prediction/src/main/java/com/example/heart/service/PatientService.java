@@ -3,6 +3,7 @@ package com.example.heart.service;
 import com.example.heart.model.PatientsData;
 import com.example.heart.repository.PatientsRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
@@ -16,11 +17,14 @@ public class PatientService {
     @Autowired
     private PatientsRepository patientRepository;
 
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Value("${flask.api.url:http://127.0.0.1:5000/predict}")
+    private String apiUrl;
+
     public PatientsData savePatientData(PatientsData patientData) {
         // Kirim data ke API Flask
-        RestTemplate restTemplate = new RestTemplate();
-        String apiUrl = "http://localhost:5000/predict";
-
         Map<String, Object> response = restTemplate.postForObject(apiUrl, patientData, Map.class);
 
         // Ambil hasil prediksi dari response API